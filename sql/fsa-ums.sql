@@ -218,6 +218,37 @@ INSERT INTO `sys_dept` VALUES (15, 8, 0, 'UI部门', 7, b'1', 'admin', 'admin',
 INSERT INTO `sys_dept` VALUES (17, 2, 0, '研发一组', 999, b'1', 'admin', 'admin', '2020-08-02 14:49:07', '2020-08-02 14:49:07');
 COMMIT;
 
+-- ----------------------------
+-- Table structure for sys_dept_closure
+-- ----------------------------
+DROP TABLE IF EXISTS `sys_dept_closure`;
+CREATE TABLE `sys_dept_closure` (
+  `ancestor_id` bigint(20) NOT NULL COMMENT '上级部门ID，包含自身',
+  `descendant_id` bigint(20) NOT NULL COMMENT '下级部门ID',
+  `depth` int(5) NOT NULL COMMENT '层级差，自身为0',
+  PRIMARY KEY (`ancestor_id`,`descendant_id`) USING BTREE,
+  KEY `inx_descendant` (`descendant_id`,`depth`)
+) ENGINE=InnoDB ROW_FORMAT=COMPACT COMMENT='部门闭包关系';
+
+-- ----------------------------
+-- Records of sys_dept_closure
+-- ----------------------------
+BEGIN;
+INSERT INTO `sys_dept_closure` VALUES (2, 2, 0);
+INSERT INTO `sys_dept_closure` VALUES (5, 5, 0);
+INSERT INTO `sys_dept_closure` VALUES (6, 6, 0);
+INSERT INTO `sys_dept_closure` VALUES (7, 7, 0);
+INSERT INTO `sys_dept_closure` VALUES (8, 8, 0);
+INSERT INTO `sys_dept_closure` VALUES (15, 15, 0);
+INSERT INTO `sys_dept_closure` VALUES (17, 17, 0);
+INSERT INTO `sys_dept_closure` VALUES (7, 2, 1);
+INSERT INTO `sys_dept_closure` VALUES (7, 5, 1);
+INSERT INTO `sys_dept_closure` VALUES (8, 6, 1);
+INSERT INTO `sys_dept_closure` VALUES (8, 15, 1);
+INSERT INTO `sys_dept_closure` VALUES (2, 17, 1);
+INSERT INTO `sys_dept_closure` VALUES (7, 17, 2);
+COMMIT;
+
 -- ----------------------------
 -- Table structure for sys_dict
 -- ----------------------------
@@ -319,7 +350,8 @@ CREATE TABLE `sys_log` (
   `create_time` datetime DEFAULT NULL,
   PRIMARY KEY (`log_id`) USING BTREE,
   KEY `log_create_time_index` (`create_time`),
-  KEY `inx_log_type` (`log_type`)
+  KEY `inx_log_type` (`log_type`),
+  KEY `inx_log_type_time` (`log_type`,`create_time`)
 ) ENGINE=InnoDB AUTO_INCREMENT=3537 ROW_FORMAT=COMPACT COMMENT='系统日志';
 
 -- ----------------------------
@@ -483,7 +515,8 @@ CREATE TABLE `sys_quartz_log` (
   `method_name` varchar(255) DEFAULT NULL,
   `params` varchar(255) DEFAULT NULL,
   `time` bigint(20) DEFAULT NULL,
-  PRIMARY KEY (`log_id`) USING BTREE
+  PRIMARY KEY (`log_id`) USING BTREE,
+  KEY `inx_quartz_log_time` (`create_time`)
 ) ENGINE=InnoDB AUTO_INCREMENT=151 ROW_FORMAT=COMPACT COMMENT='定时任务日志';
 
 -- ----------------------------
@@ -16,11 +16,7 @@
 package com.fsa.syums.config;
 
 import com.fsa.syums.utils.SecurityUtils;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * @author 全栈架构师
@@ -29,9 +25,7 @@ import java.util.stream.Collectors;
 public class AuthorityConfig {
 
     public Boolean check(String ...permissions){
-        // 获取当前用户的所有权限
-        List<String> elPermissions = SecurityUtils.getCurrentUser().getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList());
-        // 判断当前用户的所有权限是否包含接口上定义的权限
-        return elPermissions.contains("admin") || Arrays.stream(permissions).anyMatch(elPermissions::contains);
+        // 判断当前用户的权限位图是否包含接口上定义的权限
+        return SecurityUtils.getCurrentPrincipal().hasAnyPermission(permissions);
     }
 }
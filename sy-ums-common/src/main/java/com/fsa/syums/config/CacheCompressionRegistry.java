@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.config;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按缓存名称创建 {@link CompressingRedisSerializer}，并汇总各缓存的压缩统计
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+public class CacheCompressionRegistry {
+
+    private final int threshold;
+
+    private final Map<String, CompressingRedisSerializer> serializers = new ConcurrentHashMap<>();
+
+    public CacheCompressionRegistry(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * 获取或创建指定名称的压缩序列化器
+     *
+     * @param name     缓存名称
+     * @param delegate 被包装的序列化器，同一名称只在首次调用时生效
+     * @return /
+     */
+    public CompressingRedisSerializer wrap(String name, RedisSerializer<Object> delegate) {
+        return wrap(name, delegate, true);
+    }
+
+    /**
+     * 获取或创建指定名称的序列化器，不压缩时仍统计写入的字节数
+     *
+     * @param name     缓存名称
+     * @param delegate 被包装的序列化器，同一名称只在首次调用时生效
+     * @param compress 是否压缩
+     * @return /
+     */
+    public CompressingRedisSerializer wrap(String name, RedisSerializer<Object> delegate, boolean compress) {
+        return serializers.computeIfAbsent(name, k -> new CompressingRedisSerializer(k, delegate, compress ? threshold : 0));
+    }
+
+    /**
+     * 各缓存的压缩统计
+     *
+     * @return 缓存名称 -> 统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        serializers.forEach((name, serializer) -> map.put(name, serializer.stats()));
+        return map;
+    }
+}
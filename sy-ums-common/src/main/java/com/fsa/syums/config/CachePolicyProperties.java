@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Spring Cache 缓存策略，按缓存名称配置过期时间、序列化、压缩、本地一级缓存等，未配置的缓存使用默认策略
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache")
+public class CachePolicyProperties {
+
+    private static final Policy DEFAULT = new Policy();
+
+    /** 未配置过期时间的缓存的过期时间 */
+    private Duration defaultTtl = Duration.ofHours(2);
+
+    /** 缓存名称 -> 策略 */
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    /**
+     * @param name 缓存名称
+     * @return 缓存策略，未配置时返回默认策略
+     */
+    public Policy getPolicy(String name) {
+        return policies.getOrDefault(name, DEFAULT);
+    }
+
+    @Data
+    public static class Policy {
+
+        /** 过期时间，为空时使用 default-ttl。通过依赖标签失效的缓存不能超过标签的存活时间(3小时) */
+        private Duration ttl;
+
+        /** 序列化方式 */
+        private Serializer serializer = Serializer.JSON;
+
+        /** 是否压缩超过 cache.serializer.compress-threshold 的值 */
+        private boolean compress = true;
+
+        /** 本地一级缓存条目数，0 不启用 */
+        private long localSize;
+
+        /** 本地一级缓存存活时间 */
+        private Duration localTtl = Duration.ofMinutes(5);
+
+        /** 是否缓存 null 值 */
+        private boolean cacheNulls = true;
+
+        /** Redis key 前缀，加在 "缓存名称::" 之前。通过 CacheKey 直接删除条目的缓存不能设置 */
+        private String keyPrefix;
+
+        /** 加载时在 Redis 中加锁的超时时间，为空时只在本节点内合并并发加载，仅对 sync = true 的方法生效 */
+        private Duration lockTimeout;
+
+        /** 提前刷新系数，越大越早刷新，0 不提前刷新，仅对 sync = true 的方法生效 */
+        private double earlyRefreshBeta = 1.0;
+    }
+
+    public enum Serializer {
+        /** 带类型信息的 JSON */
+        JSON,
+        /** {@link CompactRedisSerializer} */
+        COMPACT
+    }
+}
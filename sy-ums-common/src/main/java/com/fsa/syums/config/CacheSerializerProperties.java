@@ -0,0 +1,39 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Redis 值序列化方式配置，集群滚动升级期间应保持关闭，全部节点升级后再开启。
+ * 各 Spring Cache 的序列化方式见 {@link CachePolicyProperties}
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache.serializer")
+public class CacheSerializerProperties {
+
+    /** RedisTemplate 是否使用紧凑序列化，影响会话、用户缓存等 RedisUtils 写入的值 */
+    private boolean templateCompact;
+
+    /** 压缩阈值(字节)，序列化后超过该大小的值压缩后写入，小于等于0 不压缩 */
+    private int compressThreshold;
+}
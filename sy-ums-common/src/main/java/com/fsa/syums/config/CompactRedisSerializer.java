@@ -0,0 +1,197 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 紧凑的二进制 Redis 序列化器，值以 Smile 编码且不携带任何类名，类型通过注册的类编号还原。
+ * 格式：标记字节 + 形态(对象/List/Set) + 两字节类编号 + Smile 数据，集合以第一个非空元素的类型为元素类型。
+ * 未注册的类型、元素类型不一致的集合以及 null 值仍按原 JSON 格式写入，
+ * 读取时不以标记字节开头的数据一律按 JSON 解析，因此可以直接读取切换前写入的缓存
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 标记字节，0xFE 不会出现在 UTF-8 编码的 JSON 中
+     */
+    static final byte MAGIC = (byte) 0xFE;
+
+    private static final byte SHAPE_OBJECT = 0;
+    private static final byte SHAPE_LIST = 1;
+    private static final byte SHAPE_SET = 2;
+
+    /**
+     * 空集合的元素类编号
+     */
+    private static final int EMPTY = 0;
+
+    /**
+     * 1 ~ 15 为内置的集合元素类型，业务类型从 16 开始编号
+     */
+    public static final int MIN_ID = 16;
+
+    private static final int MAX_ID = 0xFFFF;
+
+    private final ObjectMapper mapper = RedisConfig.applyDefaults(new ObjectMapper(new SmileFactory()))
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final RedisSerializer<Object> fallback;
+
+    private final Map<Class<?>, Integer> ids = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Class<?>> types = new ConcurrentHashMap<>();
+
+    /**
+     * 只允许作为集合元素的内置类型，单独的字符串、数字仍写为 JSON，保证 Set、ZSet 成员的字节不变
+     */
+    private final Set<Class<?>> elementOnly = new HashSet<>(Arrays.asList(Long.class, Integer.class, String.class));
+
+    public CompactRedisSerializer(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+        put(1, Long.class);
+        put(2, Integer.class);
+        put(3, String.class);
+    }
+
+    /**
+     * 注册类型，编号会写入 Redis，一经使用不可修改或复用
+     *
+     * @param id   编号，16 ~ 65535
+     * @param type 类型
+     * @return this
+     */
+    public CompactRedisSerializer register(int id, Class<?> type) {
+        if (id < MIN_ID || id > MAX_ID) {
+            throw new IllegalArgumentException("Compact type id out of range: " + id);
+        }
+        put(id, type);
+        return this;
+    }
+
+    @Override
+    public byte[] serialize(Object source) throws SerializationException {
+        byte shape = SHAPE_OBJECT;
+        Integer id = null;
+        if (source instanceof List || source instanceof Set) {
+            shape = source instanceof List ? SHAPE_LIST : SHAPE_SET;
+            id = elementId((Collection<?>) source);
+        } else if (source != null && !elementOnly.contains(source.getClass())) {
+            id = ids.get(source.getClass());
+        }
+        if (id == null) {
+            return fallback.serialize(source);
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            out.write(MAGIC);
+            out.write(shape);
+            out.write(id >>> 8);
+            out.write(id);
+            mapper.writeValue(out, source);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not write compact value: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < 4) {
+            throw new SerializationException("Truncated compact value");
+        }
+        byte shape = bytes[1];
+        int id = ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+        Class<?> type = types.get(id);
+        if (type == null && id != EMPTY) {
+            throw new SerializationException("Unknown compact type id: " + id);
+        }
+        try {
+            JavaType javaType;
+            if (shape == SHAPE_OBJECT) {
+                javaType = mapper.constructType(type);
+            } else {
+                Class<?> element = type == null ? Object.class : type;
+                Class<? extends Collection> collection = shape == SHAPE_SET ? LinkedHashSet.class : ArrayList.class;
+                javaType = mapper.getTypeFactory().constructCollectionType(collection, element);
+            }
+            return mapper.readValue(bytes, 4, bytes.length - 4, javaType);
+        } catch (IOException e) {
+            throw new SerializationException("Could not read compact value: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 集合元素全部为同一注册类型时返回其编号，否则返回 null
+     */
+    private Integer elementId(Collection<?> collection) {
+        Class<?> element = null;
+        for (Object item : collection) {
+            if (item == null) {
+                return null;
+            }
+            if (element == null) {
+                element = item.getClass();
+            } else if (element != item.getClass()) {
+                return null;
+            }
+        }
+        return element == null ? EMPTY : ids.get(element);
+    }
+
+    private void put(int id, Class<?> type) {
+        Class<?> existing = types.putIfAbsent(id, type);
+        if (existing != null && existing != type) {
+            throw new IllegalStateException("Compact type id " + id + " already registered to " + existing.getName());
+        }
+        Integer previous = ids.putIfAbsent(type, id);
+        if (previous != null && previous != id) {
+            throw new IllegalStateException(type.getName() + " already registered as compact type id " + previous);
+        }
+    }
+
+    /**
+     * 各模块通过实现该接口注册需要紧凑存储的类型
+     */
+    public interface Registrar {
+
+        /**
+         * 注册类型
+         *
+         * @param serializer 序列化器
+         */
+        void register(CompactRedisSerializer serializer);
+    }
+}
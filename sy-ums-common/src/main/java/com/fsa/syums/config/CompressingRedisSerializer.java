@@ -0,0 +1,171 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.config;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 压缩序列化器，被包装的序列化器输出超过阈值时以 Deflate(最快级别) 压缩。
+ * 格式：标记字节 + 四字节原始长度 + 压缩数据，压缩后没有变小的值按原样写入；
+ * 读取时不以标记字节开头的数据直接交给被包装的序列化器，因此可以读取开启压缩前写入的缓存
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+public class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 标记字节，与 JSON 以及 {@link CompactRedisSerializer#MAGIC} 均不冲突
+     */
+    static final byte MAGIC = (byte) 0xFD;
+
+    private static final int HEADER_LENGTH = 5;
+
+    private final String name;
+
+    private final RedisSerializer<Object> delegate;
+
+    private final int threshold;
+
+    private final LongAdder writeCount = new LongAdder();
+    private final LongAdder compressedCount = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder storedBytes = new LongAdder();
+
+    /**
+     * @param name      名称，用于统计
+     * @param delegate  被包装的序列化器
+     * @param threshold 压缩阈值(字节)，小于等于0 时不压缩
+     */
+    public CompressingRedisSerializer(String name, RedisSerializer<Object> delegate, int threshold) {
+        this.name = name;
+        this.delegate = delegate;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] serialize(Object source) throws SerializationException {
+        byte[] bytes = delegate.serialize(source);
+        if (bytes == null) {
+            return null;
+        }
+        byte[] stored = threshold > 0 && bytes.length >= threshold ? compress(bytes) : bytes;
+        writeCount.increment();
+        rawBytes.add(bytes.length);
+        storedBytes.add(stored.length);
+        if (stored != bytes) {
+            compressedCount.increment();
+        }
+        return stored;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes != null && bytes.length > 0 && bytes[0] == MAGIC) {
+            return delegate.deserialize(decompress(bytes));
+        }
+        return delegate.deserialize(bytes);
+    }
+
+    /**
+     * @return 名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 写入次数、压缩次数、压缩前后的字节数以及压缩比
+     *
+     * @return /
+     */
+    public Map<String, Object> stats() {
+        long raw = rawBytes.sum();
+        long stored = storedBytes.sum();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("threshold", threshold);
+        map.put("writeCount", writeCount.sum());
+        map.put("compressedCount", compressedCount.sum());
+        map.put("rawBytes", raw);
+        map.put("storedBytes", stored);
+        map.put("ratio", raw == 0 ? 1.0 : (double) stored / raw);
+        return map;
+    }
+
+    /**
+     * 压缩，没有变小时返回原数组
+     */
+    private static byte[] compress(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + HEADER_LENGTH);
+            out.write(MAGIC);
+            out.write(bytes.length >>> 24);
+            out.write(bytes.length >>> 16);
+            out.write(bytes.length >>> 8);
+            out.write(bytes.length);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+                if (out.size() >= bytes.length) {
+                    return bytes;
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(byte[] bytes) {
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("Truncated compressed value");
+        }
+        int length = ((bytes[1] & 0xFF) << 24) | ((bytes[2] & 0xFF) << 16) | ((bytes[3] & 0xFF) << 8) | (bytes[4] & 0xFF);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+            byte[] result = new byte[length];
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                int count = inflater.inflate(result, offset, length - offset);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += count;
+            }
+            if (offset != length) {
+                throw new SerializationException("Corrupted compressed value, expected " + length + " bytes but got " + offset);
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new SerializationException("Could not decompress value: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
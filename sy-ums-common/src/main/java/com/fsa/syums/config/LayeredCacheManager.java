@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.config;
+
+import com.fsa.syums.utils.LayeredCache;
+import com.fsa.syums.utils.NearCacheManager;
+import com.fsa.syums.utils.SingleFlightCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按缓存策略包装 Redis 缓存的 CacheManager：配置了 local-size 的缓存叠加本地一级缓存，
+ * 所有缓存外层均为 {@link SingleFlightCache}，合并并发加载并提前刷新
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+public class LayeredCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+
+    private final ObjectProvider<NearCacheManager> nearCacheManager;
+
+    private final ObjectProvider<StringRedisTemplate> stringRedisTemplate;
+
+    private final CachePolicyProperties properties;
+
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public LayeredCacheManager(CacheManager delegate, ObjectProvider<NearCacheManager> nearCacheManager,
+                               ObjectProvider<StringRedisTemplate> stringRedisTemplate, CachePolicyProperties properties) {
+        this.delegate = delegate;
+        this.nearCacheManager = nearCacheManager;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache redisCache = delegate.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, k -> {
+            CachePolicyProperties.Policy policy = properties.getPolicy(k);
+            Cache cache = redisCache;
+            if (policy.getLocalSize() > 0) {
+                NearCacheManager manager = nearCacheManager.getObject();
+                cache = new LayeredCache(redisCache, manager.getCache(LayeredCache.localName(k),
+                        policy.getLocalSize(), policy.getLocalTtl()), manager);
+            }
+            Duration ttl = redisCache instanceof RedisCache ? ((RedisCache) redisCache).getCacheConfiguration().getTtl() : null;
+            boolean lock = policy.getLockTimeout() != null && !policy.getLockTimeout().isZero();
+            return new SingleFlightCache(cache, ttl, policy.getEarlyRefreshBeta(),
+                    lock ? stringRedisTemplate.getObject() : null, policy.getLockTimeout());
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * 各缓存的策略与 Redis 读写统计，本地一级缓存的统计见 {@link NearCacheManager#stats()}
+     *
+     * @return 缓存名称 -> 统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (String name : getCacheNames()) {
+            Cache cache = getCache(name);
+            boolean local = false;
+            Cache redisCache = cache;
+            while (redisCache instanceof SingleFlightCache || redisCache instanceof LayeredCache) {
+                local |= redisCache instanceof LayeredCache;
+                redisCache = redisCache instanceof LayeredCache
+                        ? ((LayeredCache) redisCache).getDelegate() : ((SingleFlightCache) redisCache).getDelegate();
+            }
+            if (!(redisCache instanceof RedisCache)) {
+                continue;
+            }
+            CacheStatistics statistics = ((RedisCache) redisCache).getStatistics();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ttl", ((RedisCache) redisCache).getCacheConfiguration().getTtl().toString());
+            stats.put("local", local);
+            stats.put("hits", statistics.getHits());
+            stats.put("misses", statistics.getMisses());
+            stats.put("hitRate", statistics.getGets() == 0 ? 0 : (double) statistics.getHits() / statistics.getGets());
+            stats.put("puts", statistics.getPuts());
+            stats.put("deletes", statistics.getDeletes());
+            stats.put("lockWaitMillis", statistics.getLockWaitDuration(TimeUnit.MILLISECONDS));
+            map.put(name, stats);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.config;
+
+import com.fsa.syums.utils.NearCacheManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 将自动配置的 {@link RedisCacheManager} 包装为 {@link LayeredCacheManager}，
+ * 依赖通过 ObjectProvider 延迟获取，避免提前初始化 Redis 相关的 Bean
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+@Component
+@RequiredArgsConstructor
+public class LayeredCachePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<NearCacheManager> nearCacheManager;
+
+    private final ObjectProvider<StringRedisTemplate> stringRedisTemplate;
+
+    private final ObjectProvider<CachePolicyProperties> properties;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof RedisCacheManager) {
+            return new LayeredCacheManager((RedisCacheManager) bean, nearCacheManager, stringRedisTemplate, properties.getObject());
+        }
+        return bean;
+    }
+}
@@ -40,7 +40,8 @@ import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import lombok.extern.slf4j.Slf4j;
 import com.fsa.syums.utils.JSONUtil;
-import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
@@ -58,6 +59,7 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.*;
 import org.springframework.data.util.Lazy;
 import org.springframework.util.ClassUtils;
@@ -67,13 +69,10 @@ import reactor.util.annotation.Nullable;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -90,58 +89,105 @@ import java.util.function.Supplier;
 public class RedisConfig extends CachingConfigurerSupport {
 
     /**
-     * 设置 redis 数据默认过期时间，默认2小时
+     * 设置 redis 数据默认过期时间，默认2小时，见 cache.default-ttl
      * 设置@cacheable 序列化方式
      */
     @Bean
-    public RedisCacheConfiguration redisCacheConfiguration() {
-        MyJackson2JsonRedisSerializer genericJackson2JsonRedisSerializer=new MyJackson2JsonRedisSerializer();
+    public RedisCacheConfiguration redisCacheConfiguration(CacheCompressionRegistry cacheCompressionRegistry,
+                                                           CachePolicyProperties cachePolicyProperties) {
+        RedisSerializer<Object> genericJackson2JsonRedisSerializer = cacheCompressionRegistry.wrap("default", new MyJackson2JsonRedisSerializer());
         RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig();
         configuration = configuration.serializeValuesWith(RedisSerializationContext.
-                SerializationPair.fromSerializer(genericJackson2JsonRedisSerializer)).entryTtl(Duration.ofHours(2));
+                SerializationPair.fromSerializer(genericJackson2JsonRedisSerializer)).entryTtl(cachePolicyProperties.getDefaultTtl());
         return configuration;
     }
 
+    /**
+     * 超过 cache.serializer.compress-threshold 的值压缩后写入，按缓存名称统计压缩比
+     */
+    @Bean
+    public CacheCompressionRegistry cacheCompressionRegistry(CacheSerializerProperties properties) {
+        return new CacheCompressionRegistry(properties.getCompressThreshold());
+    }
+
+    /**
+     * 紧凑序列化器，需要紧凑存储的类型由各模块的 {@link CompactRedisSerializer.Registrar} 注册
+     */
+    @Bean
+    public CompactRedisSerializer compactRedisSerializer(ObjectProvider<CompactRedisSerializer.Registrar> registrars) {
+        CompactRedisSerializer serializer = new CompactRedisSerializer(new MyJackson2JsonRedisSerializer());
+        registrars.orderedStream().forEach(registrar -> registrar.register(serializer));
+        return serializer;
+    }
+
+    /**
+     * 按 cache.policies 为各缓存设置过期时间、序列化、压缩、null 值与 key 前缀，并开启读写统计，
+     * 本地一级缓存由 {@link LayeredCachePostProcessor} 叠加
+     */
+    @Bean
+    public RedisCacheManagerBuilderCustomizer cachePolicyCustomizer(RedisCacheConfiguration redisCacheConfiguration,
+                                                                    CompactRedisSerializer compactRedisSerializer,
+                                                                    CacheCompressionRegistry cacheCompressionRegistry,
+                                                                    CachePolicyProperties properties) {
+        return builder -> {
+            builder.enableStatistics();
+            properties.getPolicies().forEach((name, policy) -> {
+                RedisSerializer<Object> serializer = policy.getSerializer() == CachePolicyProperties.Serializer.COMPACT
+                        ? compactRedisSerializer : new MyJackson2JsonRedisSerializer();
+                RedisCacheConfiguration configuration = redisCacheConfiguration.serializeValuesWith(
+                        RedisSerializationContext.SerializationPair.fromSerializer(
+                                cacheCompressionRegistry.wrap(name, serializer, policy.isCompress())));
+                if (policy.getTtl() != null) {
+                    configuration = configuration.entryTtl(policy.getTtl());
+                }
+                if (!policy.isCacheNulls()) {
+                    configuration = configuration.disableCachingNullValues();
+                }
+                if (StringUtils.hasText(policy.getKeyPrefix())) {
+                    configuration = configuration.prefixCacheNameWith(policy.getKeyPrefix());
+                }
+                builder.withCacheConfiguration(name, configuration);
+            });
+        };
+    }
+
     @SuppressWarnings("all")
     @Bean(name = "redisTemplate")
     @ConditionalOnMissingBean(name = "redisTemplate")
-    public RedisTemplate<Object, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    public RedisTemplate<Object, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                       CompactRedisSerializer compactRedisSerializer,
+                                                       CacheCompressionRegistry cacheCompressionRegistry,
+                                                       CacheSerializerProperties properties) {
         RedisTemplate<Object, Object> template = new RedisTemplate<>();
-        MyJackson2JsonRedisSerializer jackson2JsonRedisSerializer = new MyJackson2JsonRedisSerializer();
+        RedisSerializer<Object> valueSerializer = cacheCompressionRegistry.wrap("redisTemplate",
+                properties.isTemplateCompact() ? compactRedisSerializer : new MyJackson2JsonRedisSerializer());
 
 
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(jackson2JsonRedisSerializer);
-        template.setHashValueSerializer(jackson2JsonRedisSerializer);
+        template.setValueSerializer(valueSerializer);
+        template.setHashValueSerializer(valueSerializer);
         template.setConnectionFactory(redisConnectionFactory);
         return template;
     }
 
+    /**
+     * Redis 消息监听容器，用于本地缓存跨节点失效通知
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+
     /**
      * 自定义缓存key生成策略，默认将使用该策略
      */
     @Bean
     @Override
     public KeyGenerator keyGenerator() {
-        return (target, method, params) -> {
-            Map<String, Object> container = new HashMap<>(8);
-            Class<?> targetClassClass = target.getClass();
-            // 类地址
-            container.put("class", targetClassClass.toGenericString());
-            // 方法名称
-            container.put("methodName", method.getName());
-            // 包名称
-            container.put("package", targetClassClass.getPackage());
-            // 参数列表
-            for (int i = 0; i < params.length; i++) {
-                container.put(String.valueOf(i), params[i]);
-            }
-            // 转为JSON字符串
-            String jsonString = JSONUtil.objToString(container);//JSON.toJSONString(container);
-            // 做SHA256 Hash计算，得到一个SHA256摘要作为Key
-            return DigestUtils.sha256Hex(jsonString);
-        };
+        return new StructuralKeyGenerator();
     }
 
     @Bean
@@ -239,7 +285,18 @@ class MyJackson2JsonRedisSerializer implements RedisSerializer<Object>{
     }
 
     private static ObjectMapper getMapper(){
-        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper mapper = applyDefaults(new ObjectMapper());
+        /**
+         * 所有非最终类型(NON_FINAL)序列化类型信息
+         */
+        mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return mapper;
+    }
+
+    /**
+     * 可见性、空值与日期格式配置，{@link CompactRedisSerializer} 共用同一套配置
+     */
+    static ObjectMapper applyDefaults(ObjectMapper mapper){
         /**
          * 属性可见，默认是
          * Only public fields visible
@@ -252,10 +309,6 @@ class MyJackson2JsonRedisSerializer implements RedisSerializer<Object>{
          * 如果值为null，不序列化
          */
         mapper.setDefaultPropertyInclusion(JsonInclude.Include.NON_NULL);
-        /**
-         * 所有非最终类型(NON_FINAL)序列化类型信息
-         */
-        mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
         JavaTimeModule javaTimeModule = new JavaTimeModule();
         DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
@@ -15,10 +15,14 @@
  */
 package com.fsa.syums.config;
 
+import com.fsa.syums.utils.RsaUtils;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+
 /**
  * @author 全栈架构师
  * @website https://fire-blogs.com
@@ -31,8 +35,14 @@ public class RsaProperties {
 
     public static String privateKey;
 
+    /**
+     * 启动时解析好的私钥，登录等解密操作无需再解析
+     */
+    public static PrivateKey key;
+
     @Value("${rsa.private_key}")
-    public void setPrivateKey(String privateKey) {
+    public void setPrivateKey(String privateKey) throws GeneralSecurityException {
         RsaProperties.privateKey = privateKey;
+        RsaProperties.key = RsaUtils.getPrivateKey(privateKey);
     }
 }
\ No newline at end of file
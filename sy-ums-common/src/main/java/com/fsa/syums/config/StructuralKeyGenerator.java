@@ -0,0 +1,177 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.config;
+
+import com.fsa.syums.utils.JSONUtil;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 结构化缓存 key 生成策略，key 格式为 类名.方法名:参数1,参数2，例如 DeptServiceImpl.findById:7。
+ * 类名与方法名组成的前缀按方法缓存，重载方法在前缀中追加参数类型；
+ * 基本类型、字符串、日期、枚举、集合与数组直接拼接，其他对象使用其 toString，未重写 toString 的对象取 JSON 摘要（以 # 开头），
+ * null 使用 {@link #NULL} 表示，字符串中的分隔符与这些标记字符均转义，不会与之混淆。
+ * 参数部分超过 {@link #MAX_LENGTH} 时以 SHA-256 摘要代替
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+public class StructuralKeyGenerator implements KeyGenerator {
+
+    static final int MAX_LENGTH = 200;
+
+    /**
+     * null 参数，字符串中的 ~ 会被转义，不会与之相同
+     */
+    static final char NULL = '~';
+
+    private final Map<Class<?>, Map<Method, String>> prefixes = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, Boolean> readable = new ConcurrentHashMap<>();
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        String prefix = prefix(ClassUtils.getUserClass(target), method);
+        if (params.length == 0) {
+            return prefix;
+        }
+        StringBuilder key = new StringBuilder(prefix.length() + 16 * params.length).append(prefix).append(':');
+        int start = key.length();
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            append(key, params[i]);
+        }
+        if (key.length() - start > MAX_LENGTH) {
+            return prefix + ":#" + DigestUtils.sha256Hex(key.substring(start));
+        }
+        return key.toString();
+    }
+
+    private String prefix(Class<?> targetClass, Method method) {
+        Map<Method, String> methods = prefixes.get(targetClass);
+        if (methods == null) {
+            methods = prefixes.computeIfAbsent(targetClass, k -> new ConcurrentHashMap<>());
+        }
+        String prefix = methods.get(method);
+        if (prefix == null) {
+            prefix = methods.computeIfAbsent(method, k -> buildPrefix(targetClass, k));
+        }
+        return prefix;
+    }
+
+    private static String buildPrefix(Class<?> targetClass, Method method) {
+        StringBuilder prefix = new StringBuilder(targetClass.getSimpleName()).append('.').append(method.getName());
+        long overloads = Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(targetClass))
+                .filter(m -> m.getName().equals(method.getName())).count();
+        if (overloads > 1) {
+            StringJoiner types = new StringJoiner(",", "(", ")");
+            for (Class<?> type : method.getParameterTypes()) {
+                types.add(type.getSimpleName());
+            }
+            prefix.append(types);
+        }
+        return prefix.toString();
+    }
+
+    private void append(StringBuilder key, Object value) {
+        if (value == null) {
+            key.append(NULL);
+        } else if (value instanceof CharSequence) {
+            escape(key, (CharSequence) value);
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof Character
+                || value instanceof TemporalAccessor) {
+            key.append(value);
+        } else if (value instanceof Enum) {
+            key.append(((Enum<?>) value).name());
+        } else if (value instanceof Date) {
+            key.append(((Date) value).getTime());
+        } else if (value.getClass().isArray()) {
+            key.append('[');
+            for (int i = 0, length = Array.getLength(value); i < length; i++) {
+                if (i > 0) {
+                    key.append(',');
+                }
+                append(key, Array.get(value, i));
+            }
+            key.append(']');
+        } else if (value instanceof Set) {
+            // 无序集合排序后拼接，保证各节点生成相同的 key
+            List<String> items = new ArrayList<>(((Set<?>) value).size());
+            for (Object item : (Set<?>) value) {
+                items.add(render(item));
+            }
+            Collections.sort(items);
+            key.append('{').append(String.join(",", items)).append('}');
+        } else if (value instanceof Collection) {
+            key.append('[');
+            boolean first = true;
+            for (Object item : (Collection<?>) value) {
+                if (!first) {
+                    key.append(',');
+                }
+                append(key, item);
+                first = false;
+            }
+            key.append(']');
+        } else if (value instanceof Map) {
+            List<String> entries = new ArrayList<>(((Map<?, ?>) value).size());
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                entries.add(render(entry.getKey()) + '=' + render(entry.getValue()));
+            }
+            Collections.sort(entries);
+            key.append('{').append(String.join(",", entries)).append('}');
+        } else if (readable.computeIfAbsent(value.getClass(), StructuralKeyGenerator::overridesToString)) {
+            escape(key, value.toString());
+        } else {
+            key.append('#').append(DigestUtils.sha256Hex(String.valueOf(JSONUtil.objToString(value))));
+        }
+    }
+
+    private String render(Object value) {
+        StringBuilder builder = new StringBuilder();
+        append(builder, value);
+        return builder.toString();
+    }
+
+    /**
+     * 转义分隔符与标记字符，避免 ("a,b") 与 ("a", "b")、"~" 与 null、以 # 开头的字符串与摘要生成相同的 key
+     */
+    private static void escape(StringBuilder key, CharSequence value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '\\' || c == '[' || c == ']' || c == '{' || c == '}' || c == '='
+                    || c == NULL || c == '#' || c == ':') {
+                key.append('\\');
+            }
+            key.append(c);
+        }
+    }
+
+    private static boolean overridesToString(Class<?> type) {
+        Method toString = ReflectionUtils.findMethod(type, "toString");
+        return toString != null && toString.getDeclaringClass() != Object.class;
+    }
+}
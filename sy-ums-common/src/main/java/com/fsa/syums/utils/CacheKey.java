@@ -55,4 +55,17 @@ public interface CacheKey {
      * 数据字典
      */
     String DICT_NAME = "dict::name:";
+
+    /**
+     * 缓存依赖标签，见 {@link CacheTagManager}：用户
+     */
+    String TAG_USER = "user:";
+    /**
+     * 缓存依赖标签：角色
+     */
+    String TAG_ROLE = "role:";
+    /**
+     * 缓存依赖标签：部门
+     */
+    String TAG_DEPT = "dept:";
 }
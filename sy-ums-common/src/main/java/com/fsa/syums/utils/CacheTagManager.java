@@ -0,0 +1,183 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.utils;
+
+import com.fsa.syums.config.CachePolicyProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于标签的缓存失效。缓存条目写入时登记所依赖的标签（如 role:5、dept:12、user:42），
+ * 每个标签在 Redis 中维护一个集合记录依赖它的缓存 key，失效标签时通过管道取出并删除全部依赖的 key，
+ * 不再使用 KEYS 扫描整个键空间。开启了本地一级缓存的 Spring Cache（见 {@link LayeredCache}）同时在各节点失效
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheTagManager {
+
+    /**
+     * 标签集合的 key 前缀
+     */
+    public static final String TAG_PREFIX = "cache-tag::";
+
+    /**
+     * 标签集合的存活时间，不短于缓存条目的存活时间，索引中残留已过期的 key 不影响正确性
+     */
+    private static final long TAG_TTL = TimeUnit.HOURS.toSeconds(3);
+
+    /**
+     * 每批删除的 key 数量，避免单条 DEL 命令过大
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final NearCacheManager nearCacheManager;
+    private final CachePolicyProperties cachePolicyProperties;
+
+    /**
+     * 登记缓存条目依赖的标签
+     *
+     * @param key  缓存 key
+     * @param tags 标签
+     */
+    public void tag(String key, Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (String tag : tags) {
+                    stringConnection.sAdd(TAG_PREFIX + tag, key);
+                    stringConnection.expire(TAG_PREFIX + tag, TAG_TTL);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // 登记失败时该条目只能等待自然过期，不影响本次读取
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 登记缓存条目依赖的标签
+     *
+     * @param key  缓存 key
+     * @param tags 标签
+     */
+    public void tag(String key, String... tags) {
+        tag(key, Arrays.asList(tags));
+    }
+
+    /**
+     * 删除缓存条目，开启了本地一级缓存的缓存同时在各节点失效
+     *
+     * @param keys 缓存 key，格式为 缓存名称::键，见 {@link CacheKey}
+     */
+    public void evict(String... keys) {
+        if (keys.length == 0) {
+            return;
+        }
+        List<String> list = Arrays.asList(keys);
+        stringRedisTemplate.delete(list);
+        evictLocal(list);
+    }
+
+    /**
+     * 使依赖指定标签的缓存全部失效
+     *
+     * @param prefix 标签前缀，见 {@link CacheKey}
+     * @param ids    id
+     */
+    public void invalidate(String prefix, Collection<Long> ids) {
+        List<String> tags = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (id != null) {
+                tags.add(prefix + id);
+            }
+        }
+        invalidate(tags);
+    }
+
+    /**
+     * 使依赖指定标签的缓存全部失效。标签集合本身保留，由 {@link #TAG_TTL} 过期清理：
+     * 加载方法先登记标签、随后才写入缓存，若在两者之间删除了标签集合，随后写入的旧值将不再被任何标签引用
+     *
+     * @param tags 标签
+     */
+    public void invalidate(Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        List<String> tagKeys = new ArrayList<>(tags.size());
+        for (String tag : tags) {
+            tagKeys.add(TAG_PREFIX + tag);
+        }
+        List<Object> members = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            tagKeys.forEach(stringConnection::sMembers);
+            return null;
+        });
+        Set<String> keys = new LinkedHashSet<>();
+        for (Object member : members) {
+            if (member instanceof Collection) {
+                for (Object key : (Collection<?>) member) {
+                    keys.add(key.toString());
+                }
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> list = new ArrayList<>(keys);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (int i = 0; i < list.size(); i += BATCH_SIZE) {
+                stringConnection.del(list.subList(i, Math.min(i + BATCH_SIZE, list.size())).toArray(new String[0]));
+            }
+            return null;
+        });
+        evictLocal(keys);
+        log.debug("Invalidated cache tags {}, {} keys", tags, keys.size());
+    }
+
+    /**
+     * 使 Spring Cache 的本地一级缓存失效，按策略判断是否开启本地缓存，
+     * 本节点尚未创建该本地缓存时其他节点可能已经创建，仍需发送通知
+     */
+    private void evictLocal(Collection<String> keys) {
+        for (String key : keys) {
+            int index = key.indexOf(LayeredCache.SEPARATOR);
+            if (index > 0) {
+                String name = key.substring(0, index);
+                if (cachePolicyProperties.getPolicy(name).getLocalSize() > 0) {
+                    nearCacheManager.evict(LayeredCache.localName(name), key.substring(index + LayeredCache.SEPARATOR.length()));
+                }
+            }
+        }
+    }
+}
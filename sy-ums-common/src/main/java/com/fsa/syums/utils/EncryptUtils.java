@@ -21,9 +21,10 @@ import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.DESKeySpec;
 import javax.crypto.spec.IvParameterSpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 
 /**
- * 加密
+ * 加密，密钥只生成一次，Cipher 非线程安全，每个线程复用一个实例
  * @author 全栈架构师
  * @date 2023-09-23
  */
@@ -32,68 +33,83 @@ public class EncryptUtils {
 
     private static final String STR_PARAM = "Passw0rd";
 
-    private static Cipher cipher;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
 
     private static final IvParameterSpec IV = new IvParameterSpec(STR_PARAM.getBytes(StandardCharsets.UTF_8));
 
-    private static DESKeySpec getDesKeySpec(String source) throws Exception {
-        if (source == null || source.length() == 0){
-            return null;
+    private static final SecretKey SECRET_KEY = createSecretKey();
+
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance("DES/CBC/PKCS5Padding");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private static SecretKey createSecretKey() {
+        try {
+            DESKeySpec desKeySpec = new DESKeySpec(STR_PARAM.getBytes(StandardCharsets.UTF_8));
+            return SecretKeyFactory.getInstance("DES").generateSecret(desKeySpec);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
         }
-        cipher = Cipher.getInstance("DES/CBC/PKCS5Padding");
-        String strKey = "Passw0rd";
-        return new DESKeySpec(strKey.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
      * 对称加密
      */
     public static String desEncrypt(String source) throws Exception {
-        DESKeySpec desKeySpec = getDesKeySpec(source);
-        SecretKeyFactory keyFactory = SecretKeyFactory.getInstance("DES");
-        SecretKey secretKey = keyFactory.generateSecret(desKeySpec);
-        cipher.init(Cipher.ENCRYPT_MODE, secretKey, IV);
-        return byte2hex(
-                cipher.doFinal(source.getBytes(StandardCharsets.UTF_8))).toUpperCase();
+        return byte2hex(desEncrypt(source.getBytes(StandardCharsets.UTF_8)));
     }
 
     /**
      * 对称解密
      */
     public static String desDecrypt(String source) throws Exception {
-        byte[] src = hex2byte(source.getBytes(StandardCharsets.UTF_8));
-        DESKeySpec desKeySpec = getDesKeySpec(source);
-        SecretKeyFactory keyFactory = SecretKeyFactory.getInstance("DES");
-        SecretKey secretKey = keyFactory.generateSecret(desKeySpec);
-        cipher.init(Cipher.DECRYPT_MODE, secretKey, IV);
-        byte[] retByte = cipher.doFinal(src);
-        return new String(retByte);
+        return new String(desDecrypt(hex2byte(source)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 对称加密，直接处理字节，无需十六进制转换
+     */
+    public static byte[] desEncrypt(byte[] source) throws GeneralSecurityException {
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.ENCRYPT_MODE, SECRET_KEY, IV);
+        return cipher.doFinal(source);
+    }
+
+    /**
+     * 对称解密，直接处理字节，无需十六进制转换
+     */
+    public static byte[] desDecrypt(byte[] source) throws GeneralSecurityException {
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, SECRET_KEY, IV);
+        return cipher.doFinal(source);
     }
 
     private static String byte2hex(byte[] inStr) {
-        String stmp;
-        StringBuilder out = new StringBuilder(inStr.length * 2);
-        for (byte b : inStr) {
-            stmp = Integer.toHexString(b & 0xFF);
-            if (stmp.length() == 1) {
-                // 如果是0至F的单位字符串，则添加0
-                out.append("0").append(stmp);
-            } else {
-                out.append(stmp);
-            }
+        char[] out = new char[inStr.length * 2];
+        for (int i = 0; i < inStr.length; i++) {
+            out[i * 2] = HEX[(inStr[i] >> 4) & 0x0F];
+            out[i * 2 + 1] = HEX[inStr[i] & 0x0F];
         }
-        return out.toString();
+        return new String(out);
     }
 
-    private static byte[] hex2byte(byte[] b) {
+    private static byte[] hex2byte(String hex) {
         int size = 2;
-        if ((b.length % size) != 0){
+        if ((hex.length() % size) != 0){
             throw new IllegalArgumentException("长度不是偶数");
         }
-        byte[] b2 = new byte[b.length / 2];
-        for (int n = 0; n < b.length; n += size) {
-            String item = new String(b, n, 2);
-            b2[n / 2] = (byte) Integer.parseInt(item, 16);
+        byte[] b2 = new byte[hex.length() / 2];
+        for (int n = 0; n < hex.length(); n += size) {
+            int high = Character.digit(hex.charAt(n), 16);
+            int low = Character.digit(hex.charAt(n + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException("非法的十六进制字符");
+            }
+            b2[n / 2] = (byte) ((high << 4) | low);
         }
         return b2;
     }
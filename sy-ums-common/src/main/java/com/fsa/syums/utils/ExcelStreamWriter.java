@@ -0,0 +1,155 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.utils;
+
+import cn.hutool.core.date.DateUtil;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.DeferredSXSSFSheet;
+import org.apache.poi.xssf.streaming.DeferredSXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 流式导出 Excel，数据在写出响应时逐行生成，内存中只保留固定窗口的行，也不产生临时文件。
+ * 列宽根据前若干行采样估算，不再对整列做自适应计算
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+public class ExcelStreamWriter {
+
+    /**
+     * 内存中保留的行数
+     */
+    private static final int ROW_ACCESS_WINDOW = 500;
+
+    /**
+     * 用于估算列宽的采样行数
+     */
+    private static final int SAMPLE_SIZE = 200;
+
+    /**
+     * 最大列宽，单位为字符
+     */
+    private static final int MAX_COLUMN_WIDTH = 60;
+
+    /**
+     * 写出数据，表头取第一行的 key
+     *
+     * @param rows   数据，按需读取
+     * @param mapper 将数据转换为 表头 -> 值
+     * @param out    输出流，不会被关闭
+     * @throws IOException /
+     */
+    public static <T> void write(Iterator<T> rows, Function<T, Map<String, Object>> mapper, OutputStream out) throws IOException {
+        List<Map<String, Object>> sample = new ArrayList<>(SAMPLE_SIZE);
+        while (sample.size() < SAMPLE_SIZE && rows.hasNext()) {
+            sample.add(mapper.apply(rows.next()));
+        }
+        List<String> headers = sample.isEmpty() ? Collections.emptyList() : new ArrayList<>(sample.get(0).keySet());
+        DeferredSXSSFWorkbook workbook = new DeferredSXSSFWorkbook(ROW_ACCESS_WINDOW);
+        try {
+            DeferredSXSSFSheet sheet = workbook.createSheet();
+            int[] widths = sampleWidths(headers, sample);
+            for (int i = 0; i < widths.length; i++) {
+                sheet.setColumnWidth(i, widths[i] * 256);
+            }
+            CellStyle headerStyle = createHeaderStyle(workbook);
+            sheet.setRowGenerator(s -> {
+                Row header = s.createRow(0);
+                for (int i = 0; i < headers.size(); i++) {
+                    Cell cell = header.createCell(i);
+                    cell.setCellValue(headers.get(i));
+                    cell.setCellStyle(headerStyle);
+                }
+                int index = 1;
+                for (Map<String, Object> row : sample) {
+                    writeRow(s, index++, headers, row);
+                }
+                while (rows.hasNext()) {
+                    writeRow(s, index++, headers, mapper.apply(rows.next()));
+                }
+            });
+            workbook.write(out);
+        } finally {
+            workbook.close();
+        }
+    }
+
+    private static void writeRow(SXSSFSheet sheet, int index, List<String> headers, Map<String, Object> data) {
+        Row row = sheet.createRow(index);
+        for (int i = 0; i < headers.size(); i++) {
+            Object value = data.get(headers.get(i));
+            if (value == null) {
+                continue;
+            }
+            Cell cell = row.createCell(i);
+            if (value instanceof Number) {
+                cell.setCellValue(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                cell.setCellValue((Boolean) value);
+            } else {
+                cell.setCellValue(toText(value));
+            }
+        }
+    }
+
+    private static String toText(Object value) {
+        if (value instanceof Date) {
+            return DateUtil.formatDateTime((Date) value);
+        }
+        return value.toString();
+    }
+
+    /**
+     * 根据表头与采样行估算列宽，中文按两个字符计算
+     */
+    private static int[] sampleWidths(List<String> headers, List<Map<String, Object>> sample) {
+        int[] widths = new int[headers.size()];
+        for (int i = 0; i < headers.size(); i++) {
+            int width = displayWidth(headers.get(i));
+            for (Map<String, Object> row : sample) {
+                Object value = row.get(headers.get(i));
+                if (value != null) {
+                    width = Math.max(width, displayWidth(toText(value)));
+                }
+            }
+            widths[i] = Math.min(width + 2, MAX_COLUMN_WIDTH);
+        }
+        return widths;
+    }
+
+    private static int displayWidth(String text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            width += text.charAt(i) >= 0x2E80 ? 2 : 1;
+        }
+        return width;
+    }
+
+    private static CellStyle createHeaderStyle(Workbook workbook) {
+        Font font = workbook.createFont();
+        font.setBold(true);
+        CellStyle style = workbook.createCellStyle();
+        style.setFont(font);
+        style.setAlignment(HorizontalAlignment.CENTER);
+        return style;
+    }
+}
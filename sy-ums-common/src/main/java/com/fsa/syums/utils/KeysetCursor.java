@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.utils;
+
+import com.fsa.syums.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * 游标分页的位置，由最后一条数据的创建时间与ID组成，创建时间可以为空，对前端而言是不透明的字符串
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+public final class KeysetCursor {
+
+    private final Long time;
+
+    private final long id;
+
+    private KeysetCursor(Long time, long id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    public static KeysetCursor of(Date time, Long id) {
+        return new KeysetCursor(time == null ? null : time.getTime(), id);
+    }
+
+    /**
+     * @return 创建时间，为空代表最后一条数据的创建时间为空
+     */
+    public Long getTime() {
+        return time;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return 编码后的游标
+     */
+    public String encode() {
+        String text = (time == null ? "" : time) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param cursor 编码后的游标
+     * @return 为空时返回 null，代表第一页
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = text.indexOf(':');
+            Long time = index == 0 ? null : Long.parseLong(text.substring(0, index));
+            return new KeysetCursor(time, Long.parseLong(text.substring(index + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("无效的分页游标：" + cursor);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.utils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.*;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 游标分页（keyset）查询，按 (createTime, id) 倒序翻页，
+ * 通过 where 条件定位而不是 offset，深度翻页与第一页的耗时相同。
+ * createTime 为空的历史数据按 MySQL 的排序规则排在最后，再按 id 倒序翻页
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+public class KeysetQueryHelp {
+
+    /**
+     * 导出时每批读取的条数
+     */
+    public static final int EXPORT_WINDOW = 1000;
+
+    private static final String CREATE_TIME = "createTime";
+
+    private static final String ID = "id";
+
+    /**
+     * 游标分页查询，查询条件与 {@link QueryHelp} 一致
+     *
+     * @param em       EntityManager
+     * @param domain   实体类，需包含 createTime 与 id 属性
+     * @param criteria 查询条件
+     * @param cursor   上一页返回的游标，为空代表第一页
+     * @param size     每页条数
+     * @param count    是否统计总数，不统计时总数返回 -1
+     * @param timeOf   读取实体的创建时间
+     * @param idOf     读取实体的ID
+     * @return 分页结果，没有下一页时游标为 null
+     */
+    public static <T, Q> PageResult<T> query(EntityManager em, Class<T> domain, Q criteria, String cursor, int size, boolean count,
+                                             Function<T, ? extends Date> timeOf, Function<T, Long> idOf) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domain);
+        Root<T> root = query.from(domain);
+        Predicate predicate = QueryHelp.getPredicate(root, criteria, cb);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after != null) {
+            Path<Date> time = root.get(CREATE_TIME);
+            Path<Long> id = root.get(ID);
+            if (after.getTime() == null) {
+                // 已翻到 createTime 为空的数据：createTime is null and id < 游标ID
+                predicate = cb.and(predicate, cb.isNull(time), cb.lessThan(id, after.getId()));
+            } else {
+                Date afterTime = new Date(after.getTime());
+                // createTime < 游标时间 or (createTime = 游标时间 and id < 游标ID) or createTime is null
+                predicate = cb.and(predicate, cb.or(cb.lessThan(time, afterTime),
+                        cb.and(cb.equal(time, afterTime), cb.lessThan(id, after.getId())), cb.isNull(time)));
+            }
+        }
+        query.where(predicate).orderBy(cb.desc(root.get(CREATE_TIME)), cb.desc(root.get(ID)));
+        // 多查一条用于判断是否还有下一页
+        List<T> list = em.createQuery(query).setMaxResults(size + 1).getResultList();
+        String nextCursor = null;
+        if (list.size() > size) {
+            list = new ArrayList<>(list.subList(0, size));
+            T last = list.get(size - 1);
+            nextCursor = KeysetCursor.of(timeOf.apply(last), idOf.apply(last)).encode();
+        }
+        long total = count ? count(em, domain, criteria) : -1;
+        return PageUtil.toPage(list, total, nextCursor);
+    }
+
+    /**
+     * 按窗口逐批读取全部数据，每读取新的窗口前将上一个窗口的实体从持久化上下文中分离，内存中只保留一个窗口的实体，
+     * 不影响调用方持久化上下文中的其他实体，用于导出等场景
+     *
+     * @param em       EntityManager
+     * @param domain   实体类，需包含 createTime 与 id 属性
+     * @param criteria 查询条件
+     * @param window   每批读取的条数
+     * @param timeOf   读取实体的创建时间
+     * @param idOf     读取实体的ID
+     * @return 按 (createTime, id) 倒序的迭代器
+     */
+    public static <T, Q> Iterator<T> iterate(EntityManager em, Class<T> domain, Q criteria, int window,
+                                             Function<T, ? extends Date> timeOf, Function<T, Long> idOf) {
+        return new Iterator<T>() {
+
+            private List<T> content = Collections.emptyList();
+
+            private Iterator<T> current = Collections.emptyIterator();
+
+            private String cursor = "";
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && cursor != null) {
+                    // 上一个窗口的数据已处理完
+                    content.forEach(em::detach);
+                    PageResult<T> page = query(em, domain, criteria, cursor, window, false, timeOf, idOf);
+                    content = page.getContent();
+                    current = content.iterator();
+                    cursor = page.getNextCursor();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * 统计满足条件的总数
+     *
+     * @param em       EntityManager
+     * @param domain   实体类
+     * @param criteria 查询条件
+     * @return /
+     */
+    public static <T, Q> long count(EntityManager em, Class<T> domain, Q criteria) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(domain);
+        query.select(cb.count(root)).where(QueryHelp.getPredicate(root, criteria, cb));
+        return em.createQuery(query).getSingleResult();
+    }
+}
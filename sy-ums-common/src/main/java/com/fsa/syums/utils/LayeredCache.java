@@ -0,0 +1,153 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.utils;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 带本地一级缓存的 Spring Cache，读取时先查 {@link NearCache} 再查 Redis，
+ * 写入、删除、清空均先操作 Redis，再通过 {@link NearCacheManager} 使各节点的本地缓存失效
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+public class LayeredCache implements Cache {
+
+    /**
+     * Redis 中缓存名称与键之间的分隔符
+     */
+    public static final String SEPARATOR = "::";
+
+    private final Cache delegate;
+
+    private final NearCache<Object> local;
+
+    private final NearCacheManager nearCacheManager;
+
+    public LayeredCache(Cache delegate, NearCache<Object> local, NearCacheManager nearCacheManager) {
+        this.delegate = delegate;
+        this.local = local;
+        this.nearCacheManager = nearCacheManager;
+    }
+
+    /**
+     * Spring Cache 对应的本地缓存名称，避免与其他本地缓存重名
+     *
+     * @param cacheName 缓存名称
+     * @return /
+     */
+    public static String localName(String cacheName) {
+        return "cache:" + cacheName;
+    }
+
+    /**
+     * @return 被包装的 Redis 缓存
+     */
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = String.valueOf(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            return new SimpleValueWrapper(value == NullValue.INSTANCE ? null : value);
+        }
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null) {
+            local.put(localKey, wrapper.get() == null ? NullValue.INSTANCE : wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = String.valueOf(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            return value == NullValue.INSTANCE ? null : (T) value;
+        }
+        T result = delegate.get(key, valueLoader);
+        local.put(localKey, result);
+        return result;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        nearCacheManager.evict(local.getName(), String.valueOf(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper wrapper = delegate.putIfAbsent(key, value);
+        nearCacheManager.evict(local.getName(), String.valueOf(key));
+        return wrapper;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        nearCacheManager.evict(local.getName(), String.valueOf(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = delegate.evictIfPresent(key);
+        nearCacheManager.evict(local.getName(), String.valueOf(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        nearCacheManager.clear(local.getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = delegate.invalidate();
+        nearCacheManager.clear(local.getName());
+        return present;
+    }
+}
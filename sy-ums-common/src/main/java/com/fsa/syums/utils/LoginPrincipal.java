@@ -0,0 +1,133 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.utils;
+
+import java.util.*;
+
+/**
+ * 当前登录用户的只读快照，每个请求解析一次后挂在 SecurityContext 上，
+ * 之后读取用户ID、部门、数据权限、权限标识均不再访问 Redis
+ *
+ * @author 全栈架构师
+ * @date 2023-12-08
+ */
+public final class LoginPrincipal {
+
+    private final Long userId;
+
+    private final Long deptId;
+
+    private final String username;
+
+    /**
+     * 数据权限部门ID，已排序，为空代表全部数据权限
+     */
+    private final long[] dataScopes;
+
+    private final List<Long> dataScopeList;
+
+    private final Set<String> authorities;
+
+    /**
+     * 权限位图，编号见 {@link PermissionRegistry}
+     */
+    private final BitSet permissions;
+
+    public LoginPrincipal(Long userId, Long deptId, String username, Collection<Long> dataScopes, Collection<String> authorities) {
+        this.userId = userId;
+        this.deptId = deptId;
+        this.username = username;
+        this.dataScopes = dataScopes.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        List<Long> list = new ArrayList<>(this.dataScopes.length);
+        for (long dataScope : this.dataScopes) {
+            list.add(dataScope);
+        }
+        this.dataScopeList = Collections.unmodifiableList(list);
+        this.authorities = Collections.unmodifiableSet(new HashSet<>(authorities));
+        this.permissions = PermissionRegistry.toBitSet(this.authorities);
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getDeptId() {
+        return deptId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @return 数据权限部门ID，只读
+     */
+    public List<Long> getDataScopes() {
+        return dataScopeList;
+    }
+
+    /**
+     * @return 是否拥有全部数据权限
+     */
+    public boolean isAllDataScope() {
+        return dataScopes.length == 0;
+    }
+
+    /**
+     * @param deptId 部门ID
+     * @return 是否可以访问该部门的数据
+     */
+    public boolean hasDataScope(long deptId) {
+        return isAllDataScope() || Arrays.binarySearch(dataScopes, deptId) >= 0;
+    }
+
+    /**
+     * @return 权限标识，只读
+     */
+    public Set<String> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * 判断是否拥有任意一个权限，超级管理员拥有全部权限
+     *
+     * @param permissions 权限标识
+     * @return /
+     */
+    public boolean hasAnyPermission(String... permissions) {
+        if (this.permissions.get(PermissionRegistry.ADMIN)) {
+            return true;
+        }
+        for (String permission : permissions) {
+            int id = PermissionRegistry.idOf(permission);
+            if (id >= 0 && this.permissions.get(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 能够提供 {@link LoginPrincipal} 的登录用户
+     */
+    public interface Provider {
+
+        /**
+         * @return 登录用户快照
+         */
+        LoginPrincipal getLoginPrincipal();
+    }
+}
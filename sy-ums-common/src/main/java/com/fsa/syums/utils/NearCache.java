@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 进程内一级缓存（L1），位于 Redis 之前，容量与存活时间均有上限。
+ * 只能通过 {@link NearCacheManager} 创建，失效操作由其负责广播到其他节点
+ *
+ * @author 全栈架构师
+ * @date 2023-12-05
+ */
+public class NearCache<V> {
+
+    private final String name;
+
+    private final Cache<String, V> cache;
+
+    NearCache(String name, Cache<String, V> cache) {
+        this.name = name;
+        this.cache = cache;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 读取缓存，未命中时调用 loader 加载，loader 返回 null 时不缓存
+     *
+     * @param key    键
+     * @param loader 加载函数，同一个 key 并发未命中时只会执行一次
+     * @return 值
+     */
+    public V get(String key, Function<String, V> loader) {
+        return cache.get(key, loader);
+    }
+
+    /**
+     * 仅读取本地缓存
+     *
+     * @param key 键
+     * @return 值，不存在返回 null
+     */
+    public V getIfPresent(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * 写入本地缓存
+     *
+     * @param key   键
+     * @param value 值，为 null 时忽略
+     */
+    public void put(String key, V value) {
+        if (value != null) {
+            cache.put(key, value);
+        }
+    }
+
+    /**
+     * 仅使本节点的缓存失效，跨节点失效请使用 {@link NearCacheManager#evict(String, String)}
+     *
+     * @param key 键
+     */
+    void invalidate(String key) {
+        cache.invalidate(key);
+    }
+
+    /**
+     * 使本节点中指定前缀的缓存失效
+     *
+     * @param prefix 前缀
+     */
+    void invalidateByPrefix(String prefix) {
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * 清空本节点缓存
+     */
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 命中、未命中、淘汰等统计信息
+     *
+     * @return /
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", cache.estimatedSize());
+        map.put("hitCount", stats.hitCount());
+        map.put("missCount", stats.missCount());
+        map.put("hitRate", stats.hitRate());
+        map.put("evictionCount", stats.evictionCount());
+        map.put("loadFailureCount", stats.loadFailureCount());
+        return map;
+    }
+}
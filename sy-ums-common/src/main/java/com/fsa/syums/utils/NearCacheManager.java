@@ -0,0 +1,232 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.utils;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本地一级缓存管理，负责创建 {@link NearCache}，并通过 Redis 发布/订阅在各节点间同步失效
+ *
+ * @author 全栈架构师
+ * @date 2023-12-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NearCacheManager implements MessageListener, InitializingBean {
+
+    /**
+     * 失效通知频道
+     */
+    public static final String CHANNEL = "near-cache:invalidate";
+
+    private static final char OP_KEY = 'K';
+    private static final char OP_PREFIX = 'P';
+    private static final char OP_CLEAR = 'C';
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final Map<String, NearCache<?>> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 获取或创建本地缓存，写入后固定时间过期
+     *
+     * @param name        缓存名称
+     * @param maximumSize 最大条目数
+     * @param ttl         写入后存活时间
+     * @return /
+     */
+    @SuppressWarnings("unchecked")
+    public <V> NearCache<V> getCache(String name, long maximumSize, Duration ttl) {
+        return (NearCache<V>) caches.computeIfAbsent(name, k -> new NearCache<>(k,
+                Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build()));
+    }
+
+    /**
+     * 获取或创建本地缓存，超过空闲时间未被访问后过期，并且写入后最多存活 ttl，
+     * 失效通知丢失时（如订阅连接断开）旧数据也只会保留有限时间
+     *
+     * @param name        缓存名称
+     * @param maximumSize 最大条目数
+     * @param idle        空闲时间
+     * @param ttl         写入后的最长存活时间
+     * @return /
+     */
+    @SuppressWarnings("unchecked")
+    public <V> NearCache<V> getIdleCache(String name, long maximumSize, Duration idle, Duration ttl) {
+        return (NearCache<V>) caches.computeIfAbsent(name, k -> new NearCache<>(k,
+                Caffeine.newBuilder().maximumSize(maximumSize).expireAfterAccess(idle).expireAfterWrite(ttl)
+                        .recordStats().build()));
+    }
+
+    /**
+     * 使所有节点上的指定缓存失效
+     *
+     * @param name 缓存名称
+     * @param key  键
+     */
+    public void evict(String name, String key) {
+        NearCache<?> cache = caches.get(name);
+        if (cache != null) {
+            cache.invalidate(key);
+        }
+        publish(OP_KEY, name, key);
+    }
+
+    /**
+     * 仅使本节点上的指定缓存失效，用于不宜在频道中传播的键
+     *
+     * @param name 缓存名称
+     * @param key  键
+     */
+    public void evictLocal(String name, String key) {
+        NearCache<?> cache = caches.get(name);
+        if (cache != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * 使所有节点上指定前缀的缓存失效
+     *
+     * @param name   缓存名称
+     * @param prefix 键前缀
+     */
+    public void evictByPrefix(String name, String prefix) {
+        NearCache<?> cache = caches.get(name);
+        if (cache != null) {
+            cache.invalidateByPrefix(prefix);
+        }
+        publish(OP_PREFIX, name, prefix);
+    }
+
+    /**
+     * 清空所有节点上的指定缓存
+     *
+     * @param name 缓存名称
+     */
+    public void clear(String name) {
+        NearCache<?> cache = caches.get(name);
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        publish(OP_CLEAR, name, "");
+    }
+
+    /**
+     * 在当前事务提交后使所有节点上的指定缓存失效，没有事务时立即失效。
+     * 提交前失效的话，并发请求可能用尚未提交的旧数据重新加载
+     *
+     * @param name 缓存名称
+     * @param key  键
+     */
+    public void evictAfterCommit(String name, String key) {
+        afterCommit(() -> evict(name, key));
+    }
+
+    /**
+     * 在当前事务提交后清空所有节点上的指定缓存，没有事务时立即清空
+     *
+     * @param name 缓存名称
+     */
+    public void clearAfterCommit(String name) {
+        afterCommit(() -> clear(name));
+    }
+
+    /**
+     * 各缓存的统计信息
+     *
+     * @return 缓存名称 -> 统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> map.put(name, cache.stats()));
+        return map;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // 消息格式：操作符 + 缓存名称 + 换行 + 键，本节点发出的消息也会收到，重复失效无副作用
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.indexOf('\n');
+        if (body.length() < 2 || index < 0) {
+            log.warn("忽略无法识别的缓存失效消息：{}", body);
+            return;
+        }
+        NearCache<?> cache = caches.get(body.substring(1, index));
+        if (cache == null) {
+            return;
+        }
+        String key = body.substring(index + 1);
+        switch (body.charAt(0)) {
+            case OP_KEY:
+                cache.invalidate(key);
+                break;
+            case OP_PREFIX:
+                cache.invalidateByPrefix(key);
+                break;
+            case OP_CLEAR:
+                cache.invalidateAll();
+                break;
+            default:
+                log.warn("忽略无法识别的缓存失效消息：{}", body);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void publish(char op, String name, String key) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, op + name + '\n' + key);
+        } catch (Exception e) {
+            // 通知失败时其他节点只能等待本地缓存自然过期
+            log.error(e.getMessage(), e);
+        }
+    }
+}
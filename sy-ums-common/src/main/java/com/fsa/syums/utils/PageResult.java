@@ -1,16 +1,27 @@
 package com.fsa.syums.utils;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
 import java.util.List;
 
 @Getter
-@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
 public class PageResult<T> {
 
     private final List<T> content;
 
     private final long totalElements;
+
+    /**
+     * 游标分页时下一页的游标，没有下一页或普通分页时为 null
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String nextCursor;
+
+    PageResult(List<T> content, long totalElements) {
+        this(content, totalElements, null);
+    }
 }
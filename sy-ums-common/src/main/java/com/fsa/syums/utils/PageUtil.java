@@ -54,6 +54,13 @@ public class PageUtil extends cn.hutool.core.util.PageUtil {
         return new PageResult<>(list, totalElements);
     }
 
+    /**
+     * 游标分页
+     */
+    public static <T> PageResult<T> toPage(List<T> list, long totalElements, String nextCursor) {
+        return new PageResult<>(list, totalElements, nextCursor);
+    }
+
     /**
      * 返回空数据
      */
@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.utils;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 权限标识注册表，将权限字符串映射为连续的整数编号，用户权限以位图保存，鉴权时只做位运算。
+ * 编号只增不减且仅在本进程内有效，位图不参与序列化，菜单删除后遗留的编号不影响鉴权结果
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+public final class PermissionRegistry {
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    /**
+     * 超级管理员权限编号
+     */
+    public static final int ADMIN = intern("admin");
+
+    private PermissionRegistry() {
+    }
+
+    /**
+     * 注册权限标识
+     *
+     * @param permission 权限标识
+     * @return 编号，空白标识返回 -1
+     */
+    public static int intern(String permission) {
+        if (StringUtils.isBlank(permission)) {
+            return -1;
+        }
+        return IDS.computeIfAbsent(permission, k -> SEQUENCE.getAndIncrement());
+    }
+
+    /**
+     * 批量注册权限标识，用于启动或菜单变更时刷新
+     *
+     * @param permissions 权限标识
+     */
+    public static void internAll(Collection<String> permissions) {
+        permissions.forEach(PermissionRegistry::intern);
+    }
+
+    /**
+     * 查询权限标识的编号，不会注册新的标识
+     *
+     * @param permission 权限标识
+     * @return 编号，未注册返回 -1，未注册说明当前没有任何用户拥有该权限
+     */
+    public static int idOf(String permission) {
+        Integer id = permission == null ? null : IDS.get(permission);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * 将权限标识集合编译为位图
+     *
+     * @param permissions 权限标识
+     * @return 位图
+     */
+    public static BitSet toBitSet(Collection<String> permissions) {
+        BitSet bits = new BitSet(SEQUENCE.get());
+        for (String permission : permissions) {
+            int id = intern(permission);
+            if (id >= 0) {
+                bits.set(id);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * @return 已注册的权限数量
+     */
+    public static int size() {
+        return IDS.size();
+    }
+}
@@ -22,10 +22,15 @@ import com.fsa.syums.annotation.DataPermission;
 import com.fsa.syums.annotation.Query;
 import lombok.extern.slf4j.Slf4j;
 import jakarta.persistence.criteria.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.*;
 
 /**
+ * 查询条件类首次使用时编译为查询计划并缓存，之后每次查询只需读取字段值并生成条件
  * @author 全栈架构师
  * @date 2023-6-4 14:59:48
  */
@@ -33,13 +38,24 @@ import java.util.*;
 @SuppressWarnings({"unchecked","all"})
 public class QueryHelp {
 
+    /**
+     * 查询条件类 -> 查询计划
+     */
+    private static final ClassValue<QueryPlan> PLANS = new ClassValue<QueryPlan>() {
+        @Override
+        protected QueryPlan computeValue(Class<?> type) {
+            return compile(type);
+        }
+    };
+
     public static <R, Q> Predicate getPredicate(Root<R> root, Q query, CriteriaBuilder cb) {
         List<Predicate> list = new ArrayList<>();
         if(query == null){
             return cb.and(list.toArray(new Predicate[0]));
         }
+        QueryPlan plan = PLANS.get(query.getClass());
         // 数据权限验证
-        DataPermission permission = query.getClass().getAnnotation(DataPermission.class);
+        DataPermission permission = plan.permission;
         if(permission != null){
             // 获取数据权限
             List<Long> dataScopes = SecurityUtils.getCurrentUserDataScope();
@@ -54,138 +70,132 @@ public class QueryHelp {
         }
         try {
             Map<String, Join> joinKey = new HashMap<>();
-            List<Field> fields = getAllFields(query.getClass(), new ArrayList<>());
-            for (Field field : fields) {
-                boolean accessible = field.isAccessible();
-                // 设置对象的访问权限，保证对private的属性的访
-                field.setAccessible(true);
-                Query q = field.getAnnotation(Query.class);
-                if (q != null) {
-                    String propName = q.propName();
-                    String joinName = q.joinName();
-                    String blurry = q.blurry();
-                    String attributeName = isBlank(propName) ? field.getName() : propName;
-                    Class<?> fieldType = field.getType();
-                    Object val = field.get(query);
-                    if (ObjectUtil.isNull(val) || "".equals(val)) {
-                        continue;
-                    }
-                    Join join = null;
-                    // 模糊多字段
-                    if (ObjectUtil.isNotEmpty(blurry)) {
-                        String[] blurrys = blurry.split(",");
-                        List<Predicate> orPredicate = new ArrayList<>();
-                        for (String s : blurrys) {
-                            orPredicate.add(cb.like(root.get(s).as(String.class), "%" + val.toString() + "%"));
-                        }
-                        Predicate[] p = new Predicate[orPredicate.size()];
-                        list.add(cb.or(orPredicate.toArray(p)));
-                        continue;
+            for (FieldPlan field : plan.fields) {
+                Object val = (Object) field.getter.invokeExact((Object) query);
+                if (ObjectUtil.isNull(val) || "".equals(val)) {
+                    continue;
+                }
+                // 模糊多字段
+                if (field.blurry != null) {
+                    Predicate[] orPredicate = new Predicate[field.blurry.length];
+                    for (int i = 0; i < field.blurry.length; i++) {
+                        orPredicate[i] = cb.like(root.get(field.blurry[i]).as(String.class), "%" + val.toString() + "%");
                     }
-                    if (ObjectUtil.isNotEmpty(joinName)) {
-                        join = joinKey.get(joinName);
-                        if(join == null){
-                            String[] joinNames = joinName.split(">");
-                            for (String name : joinNames) {
-                                switch (q.join()) {
-                                    case LEFT:
-                                        if(ObjectUtil.isNotNull(join) && ObjectUtil.isNotNull(val)){
-                                            join = join.join(name, JoinType.LEFT);
-                                        } else {
-                                            join = root.join(name, JoinType.LEFT);
-                                        }
-                                        break;
-                                    case RIGHT:
-                                        if(ObjectUtil.isNotNull(join) && ObjectUtil.isNotNull(val)){
-                                            join = join.join(name, JoinType.RIGHT);
-                                        } else {
-                                            join = root.join(name, JoinType.RIGHT);
-                                        }
-                                        break;
-                                    case INNER:
-                                        if(ObjectUtil.isNotNull(join) && ObjectUtil.isNotNull(val)){
-                                            join = join.join(name, JoinType.INNER);
-                                        } else {
-                                            join = root.join(name, JoinType.INNER);
-                                        }
-                                        break;
-                                    default: break;
-                                }
-                            }
-                            joinKey.put(joinName, join);
+                    list.add(cb.or(orPredicate));
+                    continue;
+                }
+                Join join = null;
+                if (field.joinNames != null) {
+                    join = joinKey.get(field.joinName);
+                    if(join == null){
+                        for (String name : field.joinNames) {
+                            join = join == null ? root.join(name, field.joinType) : join.join(name, field.joinType);
                         }
-                    }
-                    switch (q.type()) {
-                        case EQUAL:
-                            list.add(cb.equal(getExpression(attributeName,join,root)
-                                    .as((Class<? extends Comparable>) fieldType),val));
-                            break;
-                        case GREATER_THAN:
-                            list.add(cb.greaterThanOrEqualTo(getExpression(attributeName,join,root)
-                                    .as((Class<? extends Comparable>) fieldType), (Comparable) val));
-                            break;
-                        case LESS_THAN:
-                            list.add(cb.lessThanOrEqualTo(getExpression(attributeName,join,root)
-                                    .as((Class<? extends Comparable>) fieldType), (Comparable) val));
-                            break;
-                        case LESS_THAN_NQ:
-                            list.add(cb.lessThan(getExpression(attributeName,join,root)
-                                    .as((Class<? extends Comparable>) fieldType), (Comparable) val));
-                            break;
-                        case INNER_LIKE:
-                            list.add(cb.like(getExpression(attributeName,join,root)
-                                    .as(String.class), "%" + val.toString() + "%"));
-                            break;
-                        case LEFT_LIKE:
-                            list.add(cb.like(getExpression(attributeName,join,root)
-                                    .as(String.class), "%" + val.toString()));
-                            break;
-                        case RIGHT_LIKE:
-                            list.add(cb.like(getExpression(attributeName,join,root)
-                                    .as(String.class), val.toString() + "%"));
-                            break;
-                        case IN:
-                            if (CollUtil.isNotEmpty((Collection<Object>)val)) {
-                                list.add(getExpression(attributeName,join,root).in((Collection<Object>) val));
-                            }
-                            break;
-                        case NOT_IN:
-                            if (CollUtil.isNotEmpty((Collection<Object>)val)) {
-                                list.add(getExpression(attributeName,join,root).in((Collection<Object>) val).not());
-                            }
-                            break;
-                        case NOT_EQUAL:
-                            list.add(cb.notEqual(getExpression(attributeName,join,root), val));
-                            break;
-                        case NOT_NULL:
-                            list.add(cb.isNotNull(getExpression(attributeName,join,root)));
-                            break;
-                        case IS_NULL:
-                            list.add(cb.isNull(getExpression(attributeName,join,root)));
-                            break;
-                        case BETWEEN:
-                            List<Object> between = new ArrayList<>((List<Object>)val);
-                            if(between.size() == 2){
-                                list.add(cb.between(getExpression(attributeName, join, root).as((Class<? extends Comparable>) between.get(0).getClass()),
-                                        (Comparable) between.get(0), (Comparable) between.get(1)));
-                            }
-                            break;
-                        case FIND_IN_SET:
-                            list.add(cb.greaterThan(cb.function("FIND_IN_SET", Integer.class,
-                                    cb.literal(val.toString()), root.get(attributeName)), 0));
-                            break;
-                        default: break;
+                        joinKey.put(field.joinName, join);
                     }
                 }
-                field.setAccessible(accessible);
+                Predicate predicate = field.builder.build(cb, root, join == null ? root : join, val);
+                if (predicate != null) {
+                    list.add(predicate);
+                }
             }
-        } catch (Exception e) {
+        } catch (Throwable e) {
             log.error(e.getMessage(), e);
         }
         int size = list.size();
         return cb.and(list.toArray(new Predicate[size]));
     }
 
+    /**
+     * 解析查询条件类，只在每个类首次查询时执行
+     *
+     * @param type 查询条件类
+     * @return /
+     */
+    private static QueryPlan compile(Class<?> type) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodType getterType = MethodType.methodType(Object.class, Object.class);
+        List<FieldPlan> fields = new ArrayList<>();
+        for (Field field : getAllFields(type, new ArrayList<>())) {
+            Query q = field.getAnnotation(Query.class);
+            if (q == null) {
+                continue;
+            }
+            try {
+                // 设置对象的访问权限，保证对private的属性的访问
+                field.setAccessible(true);
+                MethodHandle getter = lookup.unreflectGetter(field);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    getter = MethodHandles.dropArguments(getter, 0, Object.class);
+                }
+                fields.add(new FieldPlan(field, q, getter.asType(getterType)));
+            } catch (Exception e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+        return new QueryPlan(type.getAnnotation(DataPermission.class), fields);
+    }
+
+    /**
+     * 根据查询方式生成条件构造器，属性名与字段类型在编译时确定
+     *
+     * @param q             查询注解
+     * @param attributeName 属性名
+     * @param fieldType     字段类型
+     * @return /
+     */
+    private static PredicateBuilder builder(Query q, String attributeName, Class<?> fieldType) {
+        switch (q.type()) {
+            case EQUAL:
+                return (cb, root, from, val) -> cb.equal(from.get(attributeName)
+                        .as((Class<? extends Comparable>) fieldType), val);
+            case GREATER_THAN:
+                return (cb, root, from, val) -> cb.greaterThanOrEqualTo(from.get(attributeName)
+                        .as((Class<? extends Comparable>) fieldType), (Comparable) val);
+            case LESS_THAN:
+                return (cb, root, from, val) -> cb.lessThanOrEqualTo(from.get(attributeName)
+                        .as((Class<? extends Comparable>) fieldType), (Comparable) val);
+            case LESS_THAN_NQ:
+                return (cb, root, from, val) -> cb.lessThan(from.get(attributeName)
+                        .as((Class<? extends Comparable>) fieldType), (Comparable) val);
+            case INNER_LIKE:
+                return (cb, root, from, val) -> cb.like(from.get(attributeName)
+                        .as(String.class), "%" + val.toString() + "%");
+            case LEFT_LIKE:
+                return (cb, root, from, val) -> cb.like(from.get(attributeName)
+                        .as(String.class), "%" + val.toString());
+            case RIGHT_LIKE:
+                return (cb, root, from, val) -> cb.like(from.get(attributeName)
+                        .as(String.class), val.toString() + "%");
+            case IN:
+                return (cb, root, from, val) -> CollUtil.isNotEmpty((Collection<Object>) val)
+                        ? from.get(attributeName).in((Collection<Object>) val) : null;
+            case NOT_IN:
+                return (cb, root, from, val) -> CollUtil.isNotEmpty((Collection<Object>) val)
+                        ? from.get(attributeName).in((Collection<Object>) val).not() : null;
+            case NOT_EQUAL:
+                return (cb, root, from, val) -> cb.notEqual(from.get(attributeName), val);
+            case NOT_NULL:
+                return (cb, root, from, val) -> cb.isNotNull(from.get(attributeName));
+            case IS_NULL:
+                return (cb, root, from, val) -> cb.isNull(from.get(attributeName));
+            case BETWEEN:
+                return (cb, root, from, val) -> {
+                    List<Object> between = new ArrayList<>((List<Object>) val);
+                    if (between.size() != 2) {
+                        return null;
+                    }
+                    return cb.between(from.get(attributeName).as((Class<? extends Comparable>) between.get(0).getClass()),
+                            (Comparable) between.get(0), (Comparable) between.get(1));
+                };
+            case FIND_IN_SET:
+                return (cb, root, from, val) -> cb.greaterThan(cb.function("FIND_IN_SET", Integer.class,
+                        cb.literal(val.toString()), root.get(attributeName)), 0);
+            default:
+                return (cb, root, from, val) -> null;
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private static <T, R> Expression<T> getExpression(String attributeName, Join join, Root<R> root) {
         if (ObjectUtil.isNotEmpty(join)) {
@@ -215,4 +225,55 @@ public class QueryHelp {
         }
         return fields;
     }
+
+    /**
+     * 条件构造器，值为空集合等无需过滤的情况返回 null
+     */
+    @FunctionalInterface
+    private interface PredicateBuilder {
+        Predicate build(CriteriaBuilder cb, Root root, From from, Object val);
+    }
+
+    /**
+     * 查询条件类的查询计划
+     */
+    private static final class QueryPlan {
+
+        private final DataPermission permission;
+
+        private final FieldPlan[] fields;
+
+        private QueryPlan(DataPermission permission, List<FieldPlan> fields) {
+            this.permission = permission;
+            this.fields = fields.toArray(new FieldPlan[0]);
+        }
+    }
+
+    /**
+     * 单个查询字段：字段读取器、连接路径、模糊字段与条件构造器
+     */
+    private static final class FieldPlan {
+
+        private final MethodHandle getter;
+
+        private final String joinName;
+
+        private final String[] joinNames;
+
+        private final JoinType joinType;
+
+        private final String[] blurry;
+
+        private final PredicateBuilder builder;
+
+        private FieldPlan(Field field, Query q, MethodHandle getter) {
+            this.getter = getter;
+            this.joinName = q.joinName();
+            this.joinNames = ObjectUtil.isNotEmpty(joinName) ? joinName.split(">") : null;
+            this.joinType = JoinType.valueOf(q.join().name());
+            this.blurry = ObjectUtil.isNotEmpty(q.blurry()) ? q.blurry().split(",") : null;
+            String attributeName = isBlank(q.propName()) ? field.getName() : q.propName();
+            this.builder = builder(q, attributeName, field.getType());
+        }
+    }
 }
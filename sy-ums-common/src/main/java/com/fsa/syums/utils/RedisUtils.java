@@ -19,12 +19,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
 import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -91,6 +95,50 @@ public class RedisUtils {
         return redisTemplate.getExpire(key, TimeUnit.SECONDS);
     }
 
+    /**
+     * 批量获取过期时间，一次管道往返
+     *
+     * @param keys 键
+     * @return 剩余时间(毫秒)，与 keys 顺序一致，-2 代表不存在，-1 代表永久有效
+     */
+    public List<Long> getExpires(List<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.keyCommands().pTtl(rawKey(key), TimeUnit.MILLISECONDS);
+            }
+            return null;
+        });
+        List<Long> expires = new ArrayList<>(results.size());
+        for (Object result : results) {
+            expires.add(result == null ? -2L : (Long) result);
+        }
+        return expires;
+    }
+
+    /**
+     * 批量指定缓存失效时间，一次管道往返
+     *
+     * @param keyTimes 键 -> 时间(毫秒) 注意:这里将会替换原有的时间
+     */
+    public boolean expires(Map<String, Long> keyTimes) {
+        if (keyTimes.isEmpty()) {
+            return true;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                keyTimes.forEach((key, time) -> connection.keyCommands().pExpire(rawKey(key), time));
+                return null;
+            });
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return false;
+        }
+        return true;
+    }
+
     /**
      * 查找匹配key
      *
@@ -180,11 +228,8 @@ public class RedisUtils {
                 log.debug(new StringBuilder("删除缓存：").append(keys[0]).append("，结果：").append(result).toString());
                 log.debug("--------------------------------------------");
             } else {
-                Set<Object> keySet = new HashSet<>();
-                for (String key : keys) {
-                    if (redisTemplate.hasKey(key))
-                        keySet.add(key);
-                }
+                // DEL 会忽略不存在的 key，无需逐个判断
+                Set<Object> keySet = new HashSet<>(Arrays.asList(keys));
                 long count = redisTemplate.delete(keySet);
                 log.debug("--------------------------------------------");
                 log.debug("成功删除缓存：" + keySet.toString());
@@ -548,6 +593,118 @@ public class RedisUtils {
         }
     }
 
+    // ===============================zset=================================
+
+    /**
+     * 将数据放入有序集合
+     *
+     * @param key   键
+     * @param value 值
+     * @param score 分数
+     * @return true成功 false失败
+     */
+    public boolean zAdd(String key, Object value, double score) {
+        try {
+            redisTemplate.opsForZSet().add(key, value, score);
+            return true;
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 将多个数据放入有序集合，一条命令完成
+     *
+     * @param key    键
+     * @param scores 值 -> 分数
+     * @return 新增的个数
+     */
+    public long zAdd(String key, Map<Object, Double> scores) {
+        if (scores.isEmpty()) {
+            return 0;
+        }
+        try {
+            Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>(scores.size());
+            scores.forEach((value, score) -> tuples.add(ZSetOperations.TypedTuple.of(value, score)));
+            Long count = redisTemplate.opsForZSet().add(key, tuples);
+            return count == null ? 0 : count;
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * 从有序集合中移除
+     *
+     * @param key    键
+     * @param values 值 可以是多个
+     * @return 移除的个数
+     */
+    public long zRemove(String key, Object... values) {
+        if (values.length == 0) {
+            return 0;
+        }
+        try {
+            Long count = redisTemplate.opsForZSet().remove(key, values);
+            return count == null ? 0 : count;
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * 按分数从高到低获取有序集合的区间
+     *
+     * @param key   键
+     * @param start 开始 0 是第一个元素
+     * @param end   结束 -1代表所有值
+     * @return /
+     */
+    public Set<Object> zReverseRange(String key, long start, long end) {
+        try {
+            return redisTemplate.opsForZSet().reverseRange(key, start, end);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * 获取分数区间内的元素
+     *
+     * @param key 键
+     * @param min 最小分数
+     * @param max 最大分数
+     * @return /
+     */
+    public Set<Object> zRangeByScore(String key, double min, double max) {
+        try {
+            return redisTemplate.opsForZSet().rangeByScore(key, min, max);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * 获取有序集合的长度
+     *
+     * @param key 键
+     * @return /
+     */
+    public long zCard(String key) {
+        try {
+            Long count = redisTemplate.opsForZSet().zCard(key);
+            return count == null ? 0 : count;
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return 0;
+        }
+    }
+
     // ===============================list=================================
 
     /**
@@ -710,19 +867,219 @@ public class RedisUtils {
     }
 
     /**
-     * @param prefix 前缀
-     * @param ids    id
+     * 批量放入并设置相同的过期时间，一次管道往返
+     *
+     * @param values   键 -> 值
+     * @param time     时间，小于等于0 将设置无限期
+     * @param timeUnit 类型
+     * @return true成功 false失败
      */
-    public void delByKeys(String prefix, Set<Long> ids) {
-        Set<Object> keys = new HashSet<>();
-        for (Long id : ids) {
-            keys.addAll(redisTemplate.keys(new StringBuffer(prefix).append(id).toString()));
+    public boolean multiSet(Map<String, Object> values, long time, TimeUnit timeUnit) {
+        Batch batch = batch();
+        values.forEach((key, value) -> batch.set(key, value, time, timeUnit));
+        try {
+            batch.execute();
+            return true;
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return false;
+        }
+    }
+
+    // ============================Pipeline=============================
+
+    /**
+     * 创建批量操作，排队的命令在 {@link Batch#execute()} 时通过一次管道往返发送
+     *
+     * @return /
+     */
+    public Batch batch() {
+        return new Batch();
+    }
+
+    /**
+     * 批量操作，非线程安全，每次使用时通过 {@link #batch()} 创建。
+     * 命令按加入顺序发送，{@link #execute()} 的结果与加入顺序一一对应
+     */
+    public final class Batch {
+
+        private final List<Consumer<RedisConnection>> commands = new ArrayList<>();
+
+        private Batch() {
+        }
+
+        /**
+         * GET，结果为反序列化后的值，不存在时为 null
+         */
+        public Batch get(String key) {
+            byte[] rawKey = rawKey(key);
+            commands.add(connection -> connection.stringCommands().get(rawKey));
+            return this;
+        }
+
+        /**
+         * SET，时间小于等于0 时不设置过期时间，结果为 Boolean
+         */
+        public Batch set(String key, Object value, long time, TimeUnit timeUnit) {
+            byte[] rawKey = rawKey(key);
+            byte[] rawValue = rawValue(value);
+            if (time > 0) {
+                Expiration expiration = Expiration.from(time, timeUnit);
+                commands.add(connection -> connection.stringCommands()
+                        .set(rawKey, rawValue, expiration, RedisStringCommands.SetOption.upsert()));
+            } else {
+                commands.add(connection -> connection.stringCommands().set(rawKey, rawValue));
+            }
+            return this;
+        }
+
+        /**
+         * PEXPIRE，结果为 Boolean
+         */
+        public Batch expire(String key, long time, TimeUnit timeUnit) {
+            byte[] rawKey = rawKey(key);
+            long millis = timeUnit.toMillis(time);
+            commands.add(connection -> connection.keyCommands().pExpire(rawKey, millis));
+            return this;
+        }
+
+        /**
+         * DEL，多个 key 合并为一条命令，结果为删除数量
+         */
+        public Batch del(String... keys) {
+            byte[][] rawKeys = Arrays.stream(keys).map(RedisUtils.this::rawKey).toArray(byte[][]::new);
+            commands.add(connection -> connection.keyCommands().del(rawKeys));
+            return this;
+        }
+
+        /**
+         * ZADD，结果为 Boolean
+         */
+        public Batch zAdd(String key, Object value, double score) {
+            byte[] rawKey = rawKey(key);
+            byte[] rawValue = rawValue(value);
+            commands.add(connection -> connection.zSetCommands().zAdd(rawKey, score, rawValue));
+            return this;
+        }
+
+        /**
+         * ZREM，结果为移除数量
+         */
+        public Batch zRemove(String key, Object... values) {
+            byte[] rawKey = rawKey(key);
+            byte[][] rawValues = rawValues(values);
+            commands.add(connection -> connection.zSetCommands().zRem(rawKey, rawValues));
+            return this;
+        }
+
+        /**
+         * SADD，结果为新增数量
+         */
+        public Batch sAdd(String key, Object... values) {
+            byte[] rawKey = rawKey(key);
+            byte[][] rawValues = rawValues(values);
+            commands.add(connection -> connection.setCommands().sAdd(rawKey, rawValues));
+            return this;
+        }
+
+        /**
+         * SREM，结果为移除数量
+         */
+        public Batch sRemove(String key, Object... values) {
+            byte[] rawKey = rawKey(key);
+            byte[][] rawValues = rawValues(values);
+            commands.add(connection -> connection.setCommands().sRem(rawKey, rawValues));
+            return this;
+        }
+
+        /**
+         * ZADD，成员按 UTF-8 字符串写入，不经过值序列化，可以通过 ZSCAN MATCH 匹配，结果为 Boolean
+         */
+        public Batch zAddString(String key, String member, double score) {
+            byte[] rawKey = rawKey(key);
+            byte[] rawMember = rawString(member);
+            commands.add(connection -> connection.zSetCommands().zAdd(rawKey, score, rawMember));
+            return this;
+        }
+
+        /**
+         * ZREM，成员按 UTF-8 字符串匹配，结果为移除数量
+         */
+        public Batch zRemoveString(String key, String... members) {
+            byte[] rawKey = rawKey(key);
+            byte[][] rawMembers = rawStrings(members);
+            commands.add(connection -> connection.zSetCommands().zRem(rawKey, rawMembers));
+            return this;
+        }
+
+        /**
+         * SADD，成员按 UTF-8 字符串写入，结果为新增数量
+         */
+        public Batch sAddString(String key, String... members) {
+            byte[] rawKey = rawKey(key);
+            byte[][] rawMembers = rawStrings(members);
+            commands.add(connection -> connection.setCommands().sAdd(rawKey, rawMembers));
+            return this;
+        }
+
+        /**
+         * SREM，成员按 UTF-8 字符串匹配，结果为移除数量
+         */
+        public Batch sRemoveString(String key, String... members) {
+            byte[] rawKey = rawKey(key);
+            byte[][] rawMembers = rawStrings(members);
+            commands.add(connection -> connection.setCommands().sRem(rawKey, rawMembers));
+            return this;
+        }
+
+        /**
+         * @return 已加入的命令数量
+         */
+        public int size() {
+            return commands.size();
+        }
+
+        /**
+         * 一次管道往返执行全部命令，没有命令时不访问 Redis
+         *
+         * @return 各命令的结果，顺序与加入顺序一致
+         */
+        public List<Object> execute() {
+            if (commands.isEmpty()) {
+                return new ArrayList<>();
+            }
+            return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                commands.forEach(command -> command.accept(connection));
+                return null;
+            });
+        }
+    }
+
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<Object>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    private byte[] rawValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    }
+
+    private static byte[] rawString(String value) {
+        return RedisSerializer.string().serialize(value);
+    }
+
+    private static byte[][] rawStrings(String... values) {
+        byte[][] rawValues = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            rawValues[i] = rawString(values[i]);
+        }
+        return rawValues;
+    }
+
+    private byte[][] rawValues(Object... values) {
+        byte[][] rawValues = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            rawValues[i] = rawValue(values[i]);
         }
-        long count = redisTemplate.delete(keys);
-        // 此处提示可自行删除
-        log.debug("--------------------------------------------");
-        log.debug("成功删除缓存：" + keys.toString());
-        log.debug("缓存删除数量：" + count + "个");
-        log.debug("--------------------------------------------");
+        return rawValues;
     }
 }
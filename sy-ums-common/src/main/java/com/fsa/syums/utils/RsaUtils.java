@@ -9,6 +9,8 @@ import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author https://www.cnblogs.com/nihaorz/p/10690643.html
@@ -19,6 +21,23 @@ public class RsaUtils {
 
     private static final String SRC = "123456";
 
+    /**
+     * 已解析的密钥，密钥文本 -> 密钥，配置中的密钥只需解析一次
+     */
+    private static final Map<String, PrivateKey> PRIVATE_KEYS = new ConcurrentHashMap<>();
+    private static final Map<String, PublicKey> PUBLIC_KEYS = new ConcurrentHashMap<>();
+
+    /**
+     * Cipher 非线程安全，每个线程复用一个实例，每次使用前重新 init
+     */
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance("RSA");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
     public static void main(String[] args) throws Exception {
         System.out.println("\n");
         RsaKeyPair keyPair = generateKeyPair();
@@ -77,10 +96,8 @@ public class RsaUtils {
      * @throws Exception /
      */
     public static String decryptByPublicKey(String publicKeyText, String text) throws Exception {
-        X509EncodedKeySpec x509EncodedKeySpec = new X509EncodedKeySpec(Base64.decodeBase64(publicKeyText));
-        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-        PublicKey publicKey = keyFactory.generatePublic(x509EncodedKeySpec);
-        Cipher cipher = Cipher.getInstance("RSA");
+        PublicKey publicKey = getPublicKey(publicKeyText);
+        Cipher cipher = CIPHER.get();
         cipher.init(Cipher.DECRYPT_MODE, publicKey);
         byte[] result = doLongerCipherFinal(Cipher.DECRYPT_MODE, cipher, Base64.decodeBase64(text));
         return new String(result);
@@ -95,10 +112,8 @@ public class RsaUtils {
      * @throws Exception /
      */
     public static String encryptByPrivateKey(String privateKeyText, String text) throws Exception {
-        PKCS8EncodedKeySpec pkcs8EncodedKeySpec = new PKCS8EncodedKeySpec(Base64.decodeBase64(privateKeyText));
-        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-        PrivateKey privateKey = keyFactory.generatePrivate(pkcs8EncodedKeySpec);
-        Cipher cipher = Cipher.getInstance("RSA");
+        PrivateKey privateKey = getPrivateKey(privateKeyText);
+        Cipher cipher = CIPHER.get();
         cipher.init(Cipher.ENCRYPT_MODE, privateKey);
         byte[] result = doLongerCipherFinal(Cipher.ENCRYPT_MODE, cipher, text.getBytes());
         return Base64.encodeBase64String(result);
@@ -113,10 +128,19 @@ public class RsaUtils {
      * @throws Exception /
      */
     public static String decryptByPrivateKey(String privateKeyText, String text) throws Exception {
-        PKCS8EncodedKeySpec pkcs8EncodedKeySpec5 = new PKCS8EncodedKeySpec(Base64.decodeBase64(privateKeyText));
-        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-        PrivateKey privateKey = keyFactory.generatePrivate(pkcs8EncodedKeySpec5);
-        Cipher cipher = Cipher.getInstance("RSA");
+        return decryptByPrivateKey(getPrivateKey(privateKeyText), text);
+    }
+
+    /**
+     * 私钥解密
+     *
+     * @param privateKey 已解析的私钥
+     * @param text 待解密的文本
+     * @return /
+     * @throws Exception /
+     */
+    public static String decryptByPrivateKey(PrivateKey privateKey, String text) throws Exception {
+        Cipher cipher = CIPHER.get();
         cipher.init(Cipher.DECRYPT_MODE, privateKey);
         byte[] result = doLongerCipherFinal(Cipher.DECRYPT_MODE, cipher, Base64.decodeBase64(text));
         return new String(result);
@@ -130,15 +154,47 @@ public class RsaUtils {
      * @return /
      */
     public static String encryptByPublicKey(String publicKeyText, String text) throws Exception {
-        X509EncodedKeySpec x509EncodedKeySpec2 = new X509EncodedKeySpec(Base64.decodeBase64(publicKeyText));
-        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-        PublicKey publicKey = keyFactory.generatePublic(x509EncodedKeySpec2);
-        Cipher cipher = Cipher.getInstance("RSA");
+        PublicKey publicKey = getPublicKey(publicKeyText);
+        Cipher cipher = CIPHER.get();
         cipher.init(Cipher.ENCRYPT_MODE, publicKey);
         byte[] result = doLongerCipherFinal(Cipher.ENCRYPT_MODE, cipher, text.getBytes());
         return Base64.encodeBase64String(result);
     }
 
+    /**
+     * 解析私钥，结果会被缓存
+     *
+     * @param privateKeyText 私钥
+     * @return /
+     * @throws GeneralSecurityException /
+     */
+    public static PrivateKey getPrivateKey(String privateKeyText) throws GeneralSecurityException {
+        PrivateKey privateKey = PRIVATE_KEYS.get(privateKeyText);
+        if (privateKey == null) {
+            PKCS8EncodedKeySpec pkcs8EncodedKeySpec = new PKCS8EncodedKeySpec(Base64.decodeBase64(privateKeyText));
+            privateKey = KeyFactory.getInstance("RSA").generatePrivate(pkcs8EncodedKeySpec);
+            PRIVATE_KEYS.put(privateKeyText, privateKey);
+        }
+        return privateKey;
+    }
+
+    /**
+     * 解析公钥，结果会被缓存
+     *
+     * @param publicKeyText 公钥
+     * @return /
+     * @throws GeneralSecurityException /
+     */
+    public static PublicKey getPublicKey(String publicKeyText) throws GeneralSecurityException {
+        PublicKey publicKey = PUBLIC_KEYS.get(publicKeyText);
+        if (publicKey == null) {
+            X509EncodedKeySpec x509EncodedKeySpec = new X509EncodedKeySpec(Base64.decodeBase64(publicKeyText));
+            publicKey = KeyFactory.getInstance("RSA").generatePublic(x509EncodedKeySpec);
+            PUBLIC_KEYS.put(publicKeyText, publicKey);
+        }
+        return publicKey;
+    }
+
     private static byte[] doLongerCipherFinal(int opMode,Cipher cipher, byte[] source) throws Exception {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         if (opMode == Cipher.DECRYPT_MODE) {
@@ -19,14 +19,13 @@ import com.fsa.syums.exception.BadRequestException;
 import com.fsa.syums.utils.enums.DataScopeEnum;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 获取当前登录的用户
@@ -64,28 +63,49 @@ public class SecurityUtils {
         throw new BadRequestException(HttpStatus.UNAUTHORIZED, "找不到当前登录的信息");
     }
 
+    /**
+     * 获取当前登录用户快照，每个请求只解析一次，之后直接从 SecurityContext 读取
+     *
+     * @return LoginPrincipal
+     */
+    public static LoginPrincipal getCurrentPrincipal() {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new BadRequestException(HttpStatus.UNAUTHORIZED, "当前登录状态过期");
+        }
+        if (authentication.getDetails() instanceof LoginPrincipal) {
+            return (LoginPrincipal) authentication.getDetails();
+        }
+        Object userDetails = authentication.getPrincipal();
+        if (!(userDetails instanceof LoginPrincipal.Provider)) {
+            userDetails = getCurrentUser();
+        }
+        if (!(userDetails instanceof LoginPrincipal.Provider)) {
+            throw new BadRequestException(HttpStatus.UNAUTHORIZED, "找不到当前登录的信息");
+        }
+        LoginPrincipal principal = ((LoginPrincipal.Provider) userDetails).getLoginPrincipal();
+        if (authentication instanceof AbstractAuthenticationToken) {
+            ((AbstractAuthenticationToken) authentication).setDetails(principal);
+        }
+        return principal;
+    }
+
     /**
      * 获取系统用户ID
      *
      * @return 系统用户ID
      */
     public static Long getCurrentUserId() {
-        UserDetails userDetails = getCurrentUser();
-        Map<String, Object> userMap = JSONUtil.objToMap(userDetails);
-        Integer id = (Integer) ((Map<String, Object>) userMap.get("user")).get("id");
-        return id.longValue();
+        return getCurrentPrincipal().getUserId();
     }
 
     /**
      * 获取当前用户的数据权限
      *
-     * @return /
+     * @return 只读的部门ID集合，为空代表全部数据权限
      */
     public static List<Long> getCurrentUserDataScope() {
-        UserDetails userDetails = getCurrentUser();
-        Map<String, Object> userMap = JSONUtil.objToMap(userDetails);
-        List<Object> dataScopes = (List<Object>) userMap.get("dataScopes");
-        return dataScopes.stream().map(o -> (Long) o).collect(Collectors.toList());
+        return getCurrentPrincipal().getDataScopes();
     }
 
     /**
@@ -94,8 +114,7 @@ public class SecurityUtils {
      * @return 级别
      */
     public static String getDataScopeType() {
-        List<Long> dataScopes = getCurrentUserDataScope();
-        if (dataScopes.size() != 0) {
+        if (!getCurrentPrincipal().isAllDataScope()) {
             return "";
         }
         return DataScopeEnum.ALL.getValue();
@@ -0,0 +1,308 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.utils;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * 防止缓存击穿的 Spring Cache，配合 {@code @Cacheable(sync = true)} 使用：
+ * <ul>
+ *     <li>同一节点内同一个 key 并发未命中时只有一个线程加载，其余线程等待其结果</li>
+ *     <li>配置了分布式锁时，加载前在 Redis 中加短期锁，其他节点等待锁持有者写入缓存，锁超时后各自加载</li>
+ *     <li>按 XFetch 算法提前刷新：本节点加载过的 key 越接近过期、加载耗时越长，命中时越可能由当前请求提前重新加载，
+ *     热点 key 不会在同一时刻集中过期</li>
+ * </ul>
+ * Spring Data Redis 自带的 RedisCache#get(key, loader) 对整个缓存加锁，不同 key 之间也会互相等待
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+@Slf4j
+public class SingleFlightCache implements Cache {
+
+    private static final String LOCK_PREFIX = "cache-lock::";
+
+    private static final RedisScript<Long> UNLOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private static final long POLL_MILLIS = 50;
+
+    private static final long MAX_STAMPS = 10_000;
+
+    private final Cache delegate;
+
+    private final Duration ttl;
+
+    private final double beta;
+
+    private final StringRedisTemplate lockTemplate;
+
+    private final Duration lockTimeout;
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * 正在提前刷新的 key，与 loading 分开登记，未命中的请求不会等待提前刷新的结果
+     */
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 本节点加载过的 key -> {过期时间, 加载耗时}，用于提前刷新
+     */
+    private final com.github.benmanes.caffeine.cache.Cache<Object, long[]> stamps;
+
+    /**
+     * @param delegate     被包装的缓存
+     * @param ttl          缓存条目的存活时间，为空或为0 时不提前刷新
+     * @param beta         提前刷新系数，越大越早刷新，小于等于0 时不提前刷新
+     * @param lockTemplate 用于分布式锁，为空时只在本节点内合并加载
+     * @param lockTimeout  分布式锁超时时间
+     */
+    public SingleFlightCache(Cache delegate, Duration ttl, double beta, StringRedisTemplate lockTemplate, Duration lockTimeout) {
+        this.delegate = delegate;
+        this.ttl = ttl;
+        this.beta = beta;
+        this.lockTemplate = lockTemplate;
+        this.lockTimeout = lockTimeout;
+        this.stamps = ttl == null || ttl.isZero() || beta <= 0 ? null
+                : Caffeine.newBuilder().maximumSize(MAX_STAMPS).expireAfterWrite(ttl).build();
+    }
+
+    /**
+     * @return 被包装的缓存
+     */
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper == null) {
+            return (T) load(key, valueLoader);
+        }
+        if (shouldRefresh(key) && !loading.containsKey(key)) {
+            refresh(key, valueLoader);
+        }
+        return (T) wrapper.get();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        if (stamps != null) {
+            stamps.invalidate(key);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        if (stamps != null) {
+            stamps.invalidate(key);
+        }
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        if (stamps != null) {
+            stamps.invalidateAll();
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        if (stamps != null) {
+            stamps.invalidateAll();
+        }
+        return delegate.invalidate();
+    }
+
+    /**
+     * 合并同一个 key 的并发加载
+     */
+    private Object load(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(key, valueLoader, existing);
+        }
+        try {
+            Object value = loadExclusively(key, valueLoader, false);
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            future.completeExceptionally(e);
+            throw e instanceof ValueRetrievalException ? (ValueRetrievalException) e : new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * 提前刷新，本节点同一个 key 只有一个线程刷新，其他节点正在加载则直接放弃，失败时继续使用缓存中的值
+     */
+    private void refresh(Object key, Callable<?> valueLoader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            loadExclusively(key, valueLoader, true);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error(e.getMessage(), e);
+        } finally {
+            refreshing.remove(key);
+        }
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof ValueRetrievalException ? (ValueRetrievalException) cause : new ValueRetrievalException(key, valueLoader, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * @param refresh 是否为提前刷新，提前刷新时拿不到锁直接返回 null，调用方不能使用其返回值
+     */
+    private Object loadExclusively(Object key, Callable<?> valueLoader, boolean refresh) throws Exception {
+        String lockKey = LOCK_PREFIX + getName() + LayeredCache.SEPARATOR + key;
+        String token = lockTemplate == null ? null : UUID.randomUUID().toString();
+        if (token != null) {
+            long deadline = System.currentTimeMillis() + lockTimeout.toMillis();
+            while (!tryLock(lockKey, token)) {
+                if (refresh) {
+                    return null;
+                }
+                // 其他节点正在加载，等待其写入缓存，超时后自行加载
+                ValueWrapper wrapper = delegate.get(key);
+                if (wrapper != null) {
+                    return wrapper.get();
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    token = null;
+                    break;
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+        }
+        try {
+            if (!refresh) {
+                ValueWrapper wrapper = delegate.get(key);
+                if (wrapper != null) {
+                    return wrapper.get();
+                }
+            }
+            long start = System.currentTimeMillis();
+            Object value = valueLoader.call();
+            delegate.put(key, value);
+            if (stamps != null) {
+                long now = System.currentTimeMillis();
+                stamps.put(key, new long[]{now + ttl.toMillis(), Math.max(now - start, 1)});
+            }
+            return value;
+        } finally {
+            if (token != null) {
+                unlock(lockKey, token);
+            }
+        }
+    }
+
+    /**
+     * XFetch：剩余存活时间小于 加载耗时 * beta * -ln(随机数) 时刷新
+     */
+    private boolean shouldRefresh(Object key) {
+        long[] stamp = stamps == null ? null : stamps.getIfPresent(key);
+        if (stamp == null) {
+            return false;
+        }
+        long remaining = stamp[0] - System.currentTimeMillis();
+        return stamp[1] * beta * -Math.log(ThreadLocalRandom.current().nextDouble()) >= remaining;
+    }
+
+    private boolean tryLock(String lockKey, String token) {
+        try {
+            return Boolean.TRUE.equals(lockTemplate.opsForValue().setIfAbsent(lockKey, token, lockTimeout));
+        } catch (Exception e) {
+            // Redis 不可用时退化为仅在本节点内合并加载
+            log.error(e.getMessage(), e);
+            return true;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            lockTemplate.execute(UNLOCK, Collections.singletonList(lockKey), token);
+        } catch (Exception e) {
+            // 解锁失败时锁会在超时后自动释放
+            log.error(e.getMessage(), e);
+        }
+    }
+}
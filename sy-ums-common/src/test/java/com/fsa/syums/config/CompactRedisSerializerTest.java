@@ -0,0 +1,103 @@
+package com.fsa.syums.config;
+
+import lombok.Data;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactRedisSerializerTest {
+
+    private MyJackson2JsonRedisSerializer json;
+
+    private CompactRedisSerializer compact;
+
+    @BeforeEach
+    public void setUp() {
+        json = new MyJackson2JsonRedisSerializer();
+        compact = new CompactRedisSerializer(json)
+                .register(16, Session.class)
+                .register(17, Authority.class);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Session session = session(1);
+        byte[] bytes = compact.serialize(session);
+        assertEquals(CompactRedisSerializer.MAGIC, bytes[0]);
+        assertEquals(session, compact.deserialize(bytes));
+    }
+
+    @Test
+    public void testCollections() {
+        List<Authority> authorities = session(1).getAuthorities();
+        assertEquals(authorities, compact.deserialize(compact.serialize(authorities)));
+        Set<Long> ids = new LinkedHashSet<>(Arrays.asList(3L, 1L, 2L));
+        assertEquals(ids, compact.deserialize(compact.serialize(ids)));
+        assertEquals(new ArrayList<>(), compact.deserialize(compact.serialize(new ArrayList<>())));
+    }
+
+    @Test
+    public void testFallbackToJson() {
+        // 单独的字符串必须与 JSON 序列化结果一致，否则 Set、ZSet 中已有的成员无法匹配
+        assertArrayEquals(json.serialize("online-token-a"), compact.serialize("online-token-a"));
+        Map<String, Object> map = new HashMap<>();
+        map.put("a", 1);
+        assertEquals(map, compact.deserialize(compact.serialize(map)));
+        List<Object> mixed = new ArrayList<>(Arrays.asList(1, "a"));
+        assertEquals(mixed, compact.deserialize(compact.serialize(mixed)));
+    }
+
+    @Test
+    public void testReadLegacyJson() {
+        Session session = session(1);
+        assertEquals(session, compact.deserialize(json.serialize(session)));
+    }
+
+    @Test
+    public void testSmallerThanJson() {
+        long jsonBytes = 0, compactBytes = 0;
+        for (int i = 0; i < 200; i++) {
+            Session session = session(i);
+            jsonBytes += json.serialize(session).length;
+            compactBytes += compact.serialize(session).length;
+        }
+        assertTrue(compactBytes < jsonBytes);
+    }
+
+    private static Session session(int i) {
+        Session session = new Session();
+        session.setId((long) i);
+        session.setUsername("user" + i);
+        session.setNickName("用户" + i);
+        session.setLoginTime(new Timestamp(1700000000000L + i));
+        session.setDataScopes(new ArrayList<>(Arrays.asList(1L, 2L, 7L)));
+        session.setAuthorities(new ArrayList<>(Arrays.asList(new Authority("admin"), new Authority("user:list"), new Authority("dept:list"))));
+        return session;
+    }
+
+    @Data
+    public static class Session {
+        private Long id;
+        private String username;
+        private String nickName;
+        private Timestamp loginTime;
+        private List<Long> dataScopes;
+        private List<Authority> authorities;
+    }
+
+    @Data
+    public static class Authority {
+        private String authority;
+
+        public Authority() {
+        }
+
+        public Authority(String authority) {
+            this.authority = authority;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.fsa.syums.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressingRedisSerializerTest {
+
+    private final MyJackson2JsonRedisSerializer json = new MyJackson2JsonRedisSerializer();
+
+    @Test
+    public void testCompressAboveThreshold() {
+        CompressingRedisSerializer serializer = new CompressingRedisSerializer("menu", json, 256);
+        String value = "menu:list,".repeat(200);
+        byte[] bytes = serializer.serialize(value);
+        assertEquals(CompressingRedisSerializer.MAGIC, bytes[0]);
+        assertTrue(bytes.length < json.serialize(value).length);
+        assertEquals(value, serializer.deserialize(bytes));
+
+        Map<String, Object> stats = serializer.stats();
+        assertEquals(1L, stats.get("compressedCount"));
+        assertTrue((double) stats.get("ratio") < 1);
+    }
+
+    @Test
+    public void testSmallValueUnchanged() {
+        RedisSerializer<Object> serializer = new CompressingRedisSerializer("menu", json, 256);
+        assertArrayEquals(json.serialize("online-token-a"), serializer.serialize("online-token-a"));
+        assertEquals("online-token-a", serializer.deserialize(json.serialize("online-token-a")));
+    }
+
+    @Test
+    public void testCorruptedValue() {
+        CompressingRedisSerializer serializer = new CompressingRedisSerializer("menu", json, 256);
+        byte[] bytes = serializer.serialize("menu:list,".repeat(200));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+        assertThrows(SerializationException.class, () -> serializer.deserialize(truncated));
+    }
+}
@@ -0,0 +1,87 @@
+package com.fsa.syums.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StructuralKeyGeneratorTest {
+
+    private final KeyGenerator generator = new StructuralKeyGenerator();
+
+    private final Sample target = new Sample();
+
+    @Test
+    public void testReadableKey() throws NoSuchMethodException {
+        Method find = Sample.class.getMethod("find", Long.class, String.class);
+        assertEquals("Sample.find:7,dept", generator.generate(target, find, 7L, "dept"));
+        assertEquals("Sample.find:~,a\\,b", generator.generate(target, find, null, "a,b"));
+        Method all = Sample.class.getMethod("all");
+        assertEquals("Sample.all", generator.generate(target, all));
+    }
+
+    @Test
+    public void testOverloadAndCollections() throws NoSuchMethodException {
+        Method byIds = Sample.class.getMethod("list", Set.class);
+        Method byName = Sample.class.getMethod("list", String.class);
+        assertEquals("Sample.list(Set):{1,2,3}", generator.generate(target, byIds, new HashSet<>(Arrays.asList(3L, 1L, 2L))));
+        assertEquals("Sample.list(String):1", generator.generate(target, byName, "1"));
+    }
+
+    @Test
+    public void testLongArguments() throws NoSuchMethodException {
+        Method find = Sample.class.getMethod("find", Long.class, String.class);
+        String key = (String) generator.generate(target, find, 1L, "x".repeat(500));
+        assertTrue(key.startsWith("Sample.find:#"));
+        assertEquals(key, generator.generate(target, find, 1L, "x".repeat(500)));
+    }
+
+    @Test
+    public void testNoCollisionWithMarkers() throws NoSuchMethodException {
+        Method find = Sample.class.getMethod("find", Long.class, String.class);
+        assertNotEquals(generator.generate(target, find, 1L, null), generator.generate(target, find, 1L, "~"));
+        assertEquals("Sample.find:1,null", generator.generate(target, find, 1L, "null"));
+        assertEquals("Sample.find:1,\\#abc", generator.generate(target, find, 1L, "#abc"));
+        assertEquals("Sample.find:1,role\\:5", generator.generate(target, find, 1L, "role:5"));
+        // 未重写 toString 的对象取摘要，与以 # 开头的字符串不同
+        Method get = Sample.class.getMethod("get", Object.class);
+        String digest = (String) generator.generate(target, get, new Query());
+        assertTrue(digest.startsWith("Sample.get:#"));
+        assertNotEquals(digest, generator.generate(target, get, digest.substring("Sample.get:".length())));
+    }
+
+    public static class Sample {
+
+        public Object find(Long id, String name) {
+            return null;
+        }
+
+        public Object all() {
+            return null;
+        }
+
+        public Object list(Set<Long> ids) {
+            return null;
+        }
+
+        public Object list(String name) {
+            return null;
+        }
+
+        public Object get(Object query) {
+            return null;
+        }
+    }
+
+    public static class Query {
+
+        private Long id = 1L;
+
+        public Long getId() {
+            return id;
+        }
+    }
+}
@@ -3,6 +3,12 @@ package com.fsa.syums.utils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class EncryptUtilsTest {
@@ -30,4 +36,32 @@ public class EncryptUtilsTest {
             e.printStackTrace();
         }
     }
+
+    /**
+     * 多线程并发加解密
+     */
+    @Test
+    public void testConcurrentDesEncrypt() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final int thread = i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        String source = "token-" + thread + "-" + j;
+                        String encrypted = EncryptUtils.desEncrypt(source);
+                        assertEquals(source, EncryptUtils.desDecrypt(encrypted));
+                        assertEquals("7772841DC6099402", EncryptUtils.desEncrypt("123456"));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
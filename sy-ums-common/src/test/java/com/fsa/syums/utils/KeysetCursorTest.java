@@ -0,0 +1,31 @@
+package com.fsa.syums.utils;
+
+import com.fsa.syums.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void testEncodeAndDecode() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.of(new Date(1700000000000L), 42L).encode());
+        assertEquals(1700000000000L, cursor.getTime());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    public void testNullTime() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.of(null, 42L).encode());
+        assertNull(cursor.getTime());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    public void testInvalidCursor() {
+        assertNull(KeysetCursor.decode(""));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+}
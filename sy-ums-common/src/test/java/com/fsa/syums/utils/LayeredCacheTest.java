@@ -0,0 +1,57 @@
+package com.fsa.syums.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LayeredCacheTest {
+
+    private Cache redis;
+
+    private LayeredCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        redis = spy(new ConcurrentMapCache("dict"));
+        NearCacheManager nearCacheManager = new NearCacheManager(mock(StringRedisTemplate.class),
+                mock(RedisMessageListenerContainer.class));
+        cache = new LayeredCache(redis, nearCacheManager.getCache(LayeredCache.localName("dict"), 100,
+                Duration.ofMinutes(1)), nearCacheManager);
+    }
+
+    @Test
+    public void testReadThroughLocal() {
+        redis.put("name:status", "enabled");
+        assertEquals("enabled", cache.get("name:status", String.class));
+        assertEquals("enabled", cache.get("name:status", String.class));
+        verify(redis, times(1)).get("name:status");
+    }
+
+    @Test
+    public void testNullValue() {
+        redis.put("name:none", null);
+        assertNotNull(cache.get("name:none"));
+        assertNull(cache.get("name:none").get());
+        verify(redis, times(1)).get("name:none");
+    }
+
+    @Test
+    public void testEvictAndClear() {
+        cache.put("name:status", "enabled");
+        assertEquals("enabled", cache.get("name:status", String.class));
+        cache.evict("name:status");
+        assertNull(cache.get("name:status"));
+        cache.put("name:status", "disabled");
+        assertEquals("disabled", cache.get("name:status", String.class));
+        cache.clear();
+        assertNull(cache.get("name:status"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.fsa.syums.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class RedisUtilsTest {
+
+    private RedisTemplate<Object, Object> redisTemplate;
+
+    private RedisConnection connection;
+
+    private RedisUtils redisUtils;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        connection = mock(RedisConnection.class, RETURNS_DEEP_STUBS);
+        doReturn(RedisSerializer.string()).when(redisTemplate).getKeySerializer();
+        doReturn(RedisSerializer.string()).when(redisTemplate).getValueSerializer();
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            RedisCallback<Object> callback = invocation.getArgument(0);
+            callback.doInRedis(connection);
+            return Arrays.asList(true, 1L, 1L, 1L);
+        });
+        redisUtils = new RedisUtils(redisTemplate);
+    }
+
+    @Test
+    public void testBatchUsesOneRoundTrip() {
+        List<Object> results = redisUtils.batch()
+                .set("online-token-a", "session", 1000, TimeUnit.MILLISECONDS)
+                .zAdd("online:time", "online-token-a", 1)
+                .sAdd("online:user:a", "online-token-a")
+                .del("a", "b")
+                .execute();
+
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        assertEquals(4, results.size());
+        verify(connection.stringCommands()).set(aryEq(bytes("online-token-a")), aryEq(bytes("session")),
+                any(Expiration.class), eq(RedisStringCommands.SetOption.upsert()));
+        verify(connection.zSetCommands()).zAdd(bytes("online:time"), 1, bytes("online-token-a"));
+        verify(connection.setCommands()).sAdd(bytes("online:user:a"), bytes("online-token-a"));
+        verify(connection.keyCommands()).del(bytes("a"), bytes("b"));
+    }
+
+    @Test
+    public void testEmptyBatchSkipsRedis() {
+        assertTrue(redisUtils.batch().execute().isEmpty());
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    public void testMultiSetUsesOneRoundTrip() {
+        assertTrue(redisUtils.multiSet(Map.of("a", "1", "b", "2"), 60, TimeUnit.SECONDS));
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    public void testStringMembersSkipValueSerializer() {
+        doReturn(RedisSerializer.json()).when(redisTemplate).getValueSerializer();
+        redisUtils.batch()
+                .zAddString("online:time", "online-token-a", 1)
+                .sAddString("online:user:a", "online-token-a")
+                .execute();
+
+        verify(connection.zSetCommands()).zAdd(bytes("online:time"), 1, bytes("online-token-a"));
+        verify(connection.setCommands()).sAdd(bytes("online:user:a"), bytes("online-token-a"));
+    }
+
+    private static byte[] bytes(String value) {
+        return RedisSerializer.string().serialize(value);
+    }
+}
@@ -0,0 +1,116 @@
+package com.fsa.syums.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SingleFlightCacheTest {
+
+    @Test
+    public void testConcurrentMissLoadsOnce() throws Exception {
+        SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("menu"), Duration.ofHours(1), 0, null, null);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get("user:1", () -> {
+                        loads.incrementAndGet();
+                        Thread.sleep(100);
+                        return "menus";
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertEquals("menus", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testLoaderFailure() {
+        SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("menu"), Duration.ofHours(1), 0, null, null);
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("user:1", () -> {
+            throw new IllegalStateException("db down");
+        }));
+        assertEquals("menus", cache.get("user:1", () -> "menus"));
+    }
+
+    @Test
+    public void testEarlyRefresh() {
+        // beta 足够大时，本节点加载过的 key 每次命中都会提前刷新
+        SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("menu"), Duration.ofHours(1), 1e12, null, null);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<Integer> loader = loads::incrementAndGet;
+        assertEquals(1, cache.get("user:1", loader));
+        assertEquals(1, cache.get("user:1", loader));
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.get("user:1", loader));
+
+        // 不提前刷新时命中不会重新加载
+        SingleFlightCache plain = new SingleFlightCache(new ConcurrentMapCache("menu"), Duration.ofHours(1), 0, null, null);
+        AtomicInteger plainLoads = new AtomicInteger();
+        plain.get("user:1", plainLoads::incrementAndGet);
+        plain.get("user:1", plainLoads::incrementAndGet);
+        assertEquals(1, plainLoads.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMissDoesNotWaitForRefresh() throws Exception {
+        // 提前刷新拿不到分布式锁时会放弃，同时发生的未命中请求必须自行加载，不能拿到 null
+        StringRedisTemplate lockTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(lockTemplate.opsForValue()).thenReturn(ops);
+        AtomicInteger locks = new AtomicInteger();
+        CountDownLatch refreshing = new CountDownLatch(1);
+        CountDownLatch missed = new CountDownLatch(1);
+        when(ops.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation -> {
+            if (locks.incrementAndGet() != 2) {
+                return true;
+            }
+            // 第二次加锁来自提前刷新：等待未命中请求完成后再返回加锁失败
+            refreshing.countDown();
+            missed.await(5, TimeUnit.SECONDS);
+            return false;
+        });
+        ConcurrentMapCache delegate = new ConcurrentMapCache("data");
+        SingleFlightCache cache = new SingleFlightCache(delegate, Duration.ofHours(1), 1e12, lockTemplate, Duration.ofSeconds(3));
+        assertEquals("v1", cache.get("user:1", () -> "v1"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> hit = executor.submit(() -> cache.get("user:1", () -> "v2"));
+            assertTrue(refreshing.await(5, TimeUnit.SECONDS));
+            delegate.evict("user:1");
+            Future<String> miss = executor.submit(() -> cache.get("user:1", () -> "v3"));
+            assertEquals("v3", miss.get(5, TimeUnit.SECONDS));
+            missed.countDown();
+            assertEquals("v1", hit.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("v3", delegate.get("user:1").get());
+    }
+}
@@ -50,7 +50,7 @@ public class SysLogController {
     @PreAuthorize("@el.check()")
     public void exportLog(HttpServletResponse response, SysLogQueryCriteria criteria) throws IOException {
         criteria.setLogType("INFO");
-        sysLogService.download(sysLogService.queryAll(criteria), response);
+        sysLogService.download(criteria, response);
     }
 
     @Log("导出错误数据")
@@ -59,13 +59,19 @@ public class SysLogController {
     @PreAuthorize("@el.check()")
     public void exportErrorLog(HttpServletResponse response, SysLogQueryCriteria criteria) throws IOException {
         criteria.setLogType("ERROR");
-        sysLogService.download(sysLogService.queryAll(criteria), response);
+        sysLogService.download(criteria, response);
     }
     @GetMapping
     @Operation(summary ="日志查询")
     @PreAuthorize("@el.check()")
-    public ResponseEntity<Object> queryLog(SysLogQueryCriteria criteria, Pageable pageable){
+    public ResponseEntity<Object> queryLog(SysLogQueryCriteria criteria, Pageable pageable,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "false") boolean count){
         criteria.setLogType("INFO");
+        // 传入 cursor 参数时使用游标分页，空值代表第一页
+        if (cursor != null) {
+            return new ResponseEntity<>(sysLogService.queryAll(criteria, cursor, pageable.getPageSize(), count), HttpStatus.OK);
+        }
         return new ResponseEntity<>(sysLogService.queryAll(criteria,pageable), HttpStatus.OK);
     }
 
@@ -80,8 +86,14 @@ public class SysLogController {
     @GetMapping(value = "/error")
     @Operation(summary ="错误日志查询")
     @PreAuthorize("@el.check()")
-    public ResponseEntity<Object> queryErrorLog(SysLogQueryCriteria criteria, Pageable pageable){
+    public ResponseEntity<Object> queryErrorLog(SysLogQueryCriteria criteria, Pageable pageable,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "false") boolean count){
         criteria.setLogType("ERROR");
+        // 传入 cursor 参数时使用游标分页，空值代表第一页
+        if (cursor != null) {
+            return new ResponseEntity<>(sysLogService.queryAll(criteria, cursor, pageable.getPageSize(), count), HttpStatus.OK);
+        }
         return new ResponseEntity<>(sysLogService.queryAll(criteria,pageable), HttpStatus.OK);
     }
 
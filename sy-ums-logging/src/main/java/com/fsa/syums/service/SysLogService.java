@@ -25,7 +25,9 @@ import org.springframework.scheduling.annotation.Async;
 
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.function.LongConsumer;
 
 /**
  * @author 全栈架构师
@@ -41,6 +43,16 @@ public interface SysLogService {
      */
     Object queryAll(SysLogQueryCriteria criteria, Pageable pageable);
 
+    /**
+     * 游标分页查询，适用于数据量较大时的深度翻页
+     * @param criteria 查询条件
+     * @param cursor 上一页返回的游标，为空代表第一页
+     * @param size 每页条数
+     * @param count 是否统计总数
+     * @return /
+     */
+    Object queryAll(SysLogQueryCriteria criteria, String cursor, int size, boolean count);
+
     /**
      * 查询全部数据
      * @param criteria 查询条件
@@ -82,6 +94,23 @@ public interface SysLogService {
      */
     void download(List<SysLog> sysLogs, HttpServletResponse response) throws IOException;
 
+    /**
+     * 流式导出日志，按批读取数据库并直接写入响应
+     * @param criteria 查询条件
+     * @param response /
+     * @throws IOException /
+     */
+    void download(SysLogQueryCriteria criteria, HttpServletResponse response) throws IOException;
+
+    /**
+     * 流式导出日志到输出流，用于后台导出任务
+     * @param criteria 查询条件
+     * @param out 输出流，不会被关闭
+     * @param progress 每写出一行回调一次已写出的行数
+     * @throws IOException /
+     */
+    void writeExcel(SysLogQueryCriteria criteria, OutputStream out, LongConsumer progress) throws IOException;
+
     /**
      * 删除所有错误日志
      */
@@ -37,11 +37,16 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.*;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
 
 /**
  * @author 全栈架构师
@@ -53,6 +58,8 @@ public class SysLogServiceImpl implements SysLogService {
     private final LogRepository logRepository;
     private final LogErrorMapper logErrorMapper;
     private final LogSmallMapper logSmallMapper;
+    @PersistenceContext
+    private EntityManager em;
 
     @Override
     public Object queryAll(SysLogQueryCriteria criteria, Pageable pageable) {
@@ -64,6 +71,18 @@ public class SysLogServiceImpl implements SysLogService {
         return PageUtil.toPage(page);
     }
 
+    @Override
+    public Object queryAll(SysLogQueryCriteria criteria, String cursor, int size, boolean count) {
+        PageResult<SysLog> page = KeysetQueryHelp.query(em, SysLog.class, criteria, cursor, size, count,
+                SysLog::getCreateTime, SysLog::getId);
+        String status = "ERROR";
+        if (status.equals(criteria.getLogType())) {
+            return PageUtil.toPage(page.getContent().stream().map(logErrorMapper::toDto).collect(Collectors.toList()),
+                    page.getTotalElements(), page.getNextCursor());
+        }
+        return page;
+    }
+
     @Override
     public List<SysLog> queryAll(SysLogQueryCriteria criteria) {
         return logRepository.findAll(((root, criteriaQuery, cb) -> QueryHelp.getPredicate(root, criteria, cb)));
@@ -150,20 +169,39 @@ public class SysLogServiceImpl implements SysLogService {
 
     @Override
     public void download(List<SysLog> sysLogs, HttpServletResponse response) throws IOException {
-        List<Map<String, Object>> list = new ArrayList<>();
-        for (SysLog sysLog : sysLogs) {
-            Map<String, Object> map = new LinkedHashMap<>();
-            map.put("用户名", sysLog.getUsername());
-            map.put("IP", sysLog.getRequestIp());
-            map.put("IP来源", sysLog.getAddress());
-            map.put("描述", sysLog.getDescription());
-            map.put("浏览器", sysLog.getBrowser());
-            map.put("请求耗时/毫秒", sysLog.getTime());
-            map.put("异常详情", new String(ObjectUtil.isNotNull(sysLog.getExceptionDetail()) ? sysLog.getExceptionDetail() : "".getBytes()));
-            map.put("创建日期", sysLog.getCreateTime());
-            list.add(map);
-        }
-        FileUtil.downloadExcel(list, response);
+        FileUtil.downloadExcel(sysLogs.iterator(), this::toExcelRow, response);
+    }
+
+    @Override
+    public void download(SysLogQueryCriteria criteria, HttpServletResponse response) throws IOException {
+        FileUtil.downloadExcel(iterate(criteria), this::toExcelRow, response);
+    }
+
+    @Override
+    public void writeExcel(SysLogQueryCriteria criteria, OutputStream out, LongConsumer progress) throws IOException {
+        long[] rows = new long[1];
+        ExcelStreamWriter.write(iterate(criteria), sysLog -> {
+            progress.accept(++rows[0]);
+            return toExcelRow(sysLog);
+        }, out);
+    }
+
+    private Iterator<SysLog> iterate(SysLogQueryCriteria criteria) {
+        return KeysetQueryHelp.iterate(em, SysLog.class, criteria, KeysetQueryHelp.EXPORT_WINDOW,
+                SysLog::getCreateTime, SysLog::getId);
+    }
+
+    private Map<String, Object> toExcelRow(SysLog sysLog) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("用户名", sysLog.getUsername());
+        map.put("IP", sysLog.getRequestIp());
+        map.put("IP来源", sysLog.getAddress());
+        map.put("描述", sysLog.getDescription());
+        map.put("浏览器", sysLog.getBrowser());
+        map.put("请求耗时/毫秒", sysLog.getTime());
+        map.put("异常详情", new String(ObjectUtil.isNotNull(sysLog.getExceptionDetail()) ? sysLog.getExceptionDetail() : "".getBytes()));
+        map.put("创建日期", sysLog.getCreateTime());
+        return map;
     }
 
     @Override
@@ -49,4 +49,20 @@ public class CustomExecutorConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * 后台导出线程池，线程与队列均有上限，队列满时拒绝新的导出任务
+     * @return Executor
+     */
+    @Bean
+    public Executor exportAsync() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("el-export-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
 }
@@ -69,13 +69,19 @@ public class QuartzJobController {
     @GetMapping(value = "/logs/download")
     @PreAuthorize("@el.check('timing:list')")
     public void exportQuartzJobLog(HttpServletResponse response, JobQueryCriteria criteria) throws IOException {
-        quartzJobService.downloadLog(quartzJobService.queryAllLog(criteria), response);
+        quartzJobService.downloadLog(criteria, response);
     }
 
     @Operation(summary ="查询任务执行日志")
     @GetMapping(value = "/logs")
     @PreAuthorize("@el.check('timing:list')")
-    public ResponseEntity<PageResult<QuartzLog>> queryQuartzJobLog(JobQueryCriteria criteria, Pageable pageable){
+    public ResponseEntity<PageResult<QuartzLog>> queryQuartzJobLog(JobQueryCriteria criteria, Pageable pageable,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = "false") boolean count){
+        // 传入 cursor 参数时使用游标分页，空值代表第一页
+        if (cursor != null) {
+            return new ResponseEntity<>(quartzJobService.queryAllLog(criteria, cursor, pageable.getPageSize(), count), HttpStatus.OK);
+        }
         return new ResponseEntity<>(quartzJobService.queryAllLog(criteria,pageable), HttpStatus.OK);
     }
 
@@ -54,6 +54,16 @@ public interface QuartzJobService {
      */
     PageResult<QuartzLog> queryAllLog(JobQueryCriteria criteria, Pageable pageable);
 
+    /**
+     * 游标分页查询日志，适用于数据量较大时的深度翻页
+     * @param criteria 条件
+     * @param cursor 上一页返回的游标，为空代表第一页
+     * @param size 每页条数
+     * @param count 是否统计总数
+     * @return /
+     */
+    PageResult<QuartzLog> queryAllLog(JobQueryCriteria criteria, String cursor, int size, boolean count);
+
     /**
      * 查询全部
      * @param criteria 条件
@@ -114,6 +124,14 @@ public interface QuartzJobService {
      */
     void downloadLog(List<QuartzLog> queryAllLog, HttpServletResponse response) throws IOException;
 
+    /**
+     * 流式导出定时任务日志，按批读取数据库并直接写入响应
+     * @param criteria 条件
+     * @param response /
+     * @throws IOException /
+     */
+    void downloadLog(JobQueryCriteria criteria, HttpServletResponse response) throws IOException;
+
     /**
      * 执行子任务
      * @param tasks /
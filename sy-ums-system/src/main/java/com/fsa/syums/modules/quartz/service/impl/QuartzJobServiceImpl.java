@@ -33,6 +33,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.*;
@@ -49,6 +51,8 @@ public class QuartzJobServiceImpl implements QuartzJobService {
     private final QuartzLogRepository quartzLogRepository;
     private final QuartzManage quartzManage;
     private final RedisUtils redisUtils;
+    @PersistenceContext
+    private EntityManager em;
 
     @Override
     public PageResult<QuartzJob> queryAll(JobQueryCriteria criteria, Pageable pageable){
@@ -60,6 +64,12 @@ public class QuartzJobServiceImpl implements QuartzJobService {
         return PageUtil.toPage(quartzLogRepository.findAll((root, criteriaQuery, criteriaBuilder) -> QueryHelp.getPredicate(root,criteria,criteriaBuilder),pageable));
     }
 
+    @Override
+    public PageResult<QuartzLog> queryAllLog(JobQueryCriteria criteria, String cursor, int size, boolean count) {
+        return KeysetQueryHelp.query(em, QuartzLog.class, criteria, cursor, size, count,
+                QuartzLog::getCreateTime, QuartzLog::getId);
+    }
+
     @Override
     public List<QuartzJob> queryAll(JobQueryCriteria criteria) {
         return quartzJobRepository.findAll((root, criteriaQuery, criteriaBuilder) -> QueryHelp.getPredicate(root,criteria,criteriaBuilder));
@@ -179,20 +189,26 @@ public class QuartzJobServiceImpl implements QuartzJobService {
 
     @Override
     public void downloadLog(List<QuartzLog> queryAllLog, HttpServletResponse response) throws IOException {
-        List<Map<String, Object>> list = new ArrayList<>();
-        for (QuartzLog quartzLog : queryAllLog) {
-            Map<String,Object> map = new LinkedHashMap<>();
-            map.put("任务名称", quartzLog.getJobName());
-            map.put("Bean名称", quartzLog.getBeanName());
-            map.put("执行方法", quartzLog.getMethodName());
-            map.put("参数", quartzLog.getParams());
-            map.put("表达式", quartzLog.getCronExpression());
-            map.put("异常详情", quartzLog.getExceptionDetail());
-            map.put("耗时/毫秒", quartzLog.getTime());
-            map.put("状态", quartzLog.getIsSuccess() ? "成功" : "失败");
-            map.put("创建日期", quartzLog.getCreateTime());
-            list.add(map);
-        }
-        FileUtil.downloadExcel(list, response);
+        FileUtil.downloadExcel(queryAllLog.iterator(), this::toExcelRow, response);
+    }
+
+    @Override
+    public void downloadLog(JobQueryCriteria criteria, HttpServletResponse response) throws IOException {
+        FileUtil.downloadExcel(KeysetQueryHelp.iterate(em, QuartzLog.class, criteria, KeysetQueryHelp.EXPORT_WINDOW,
+                QuartzLog::getCreateTime, QuartzLog::getId), this::toExcelRow, response);
+    }
+
+    private Map<String, Object> toExcelRow(QuartzLog quartzLog) {
+        Map<String,Object> map = new LinkedHashMap<>();
+        map.put("任务名称", quartzLog.getJobName());
+        map.put("Bean名称", quartzLog.getBeanName());
+        map.put("执行方法", quartzLog.getMethodName());
+        map.put("参数", quartzLog.getParams());
+        map.put("表达式", quartzLog.getCronExpression());
+        map.put("异常详情", quartzLog.getExceptionDetail());
+        map.put("耗时/毫秒", quartzLog.getTime());
+        map.put("状态", quartzLog.getIsSuccess() ? "成功" : "失败");
+        map.put("创建日期", quartzLog.getCreateTime());
+        return map;
     }
 }
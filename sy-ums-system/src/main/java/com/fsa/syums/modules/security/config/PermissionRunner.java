@@ -0,0 +1,44 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.modules.security.config;
+
+import com.fsa.syums.modules.system.repository.MenuRepository;
+import com.fsa.syums.utils.PermissionRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 项目启动时注册菜单中的全部权限标识
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PermissionRunner implements ApplicationRunner {
+
+    private final MenuRepository menuRepository;
+
+    @Override
+    public void run(ApplicationArguments applicationArguments) {
+        PermissionRegistry.internAll(menuRepository.findAllPermissions());
+        log.info("Permission registry initialized, {} permissions", PermissionRegistry.size());
+    }
+}
@@ -66,6 +66,31 @@ public class SecurityProperties {
      */
     private Long renew;
 
+    /**
+     * 续期批量提交间隔 此处单位/毫秒
+     */
+    private Long renewFlushInterval = 5000L;
+
+    /**
+     * 在线用户本地缓存最大条目数
+     */
+    private Long onlineCacheSize = 10000L;
+
+    /**
+     * 在线用户本地缓存存活时间 此处单位/毫秒
+     */
+    private Long onlineCacheTtl = 60000L;
+
+    /**
+     * 已验签 Token 本地缓存最大条目数
+     */
+    private Long tokenCacheSize = 10000L;
+
+    /**
+     * 已验签 Token 本地缓存存活时间 此处单位/毫秒
+     */
+    private Long tokenCacheTtl = 1800000L;
+
     public String getTokenStartWith() {
         return tokenStartWith + " ";
     }
@@ -77,7 +77,7 @@ public class AuthorizationController {
     @AnonymousPostMapping(value = "/login")
     public ResponseEntity<Object> login(@Validated @RequestBody AuthUserDto authUser, HttpServletRequest request) throws Exception {
         // 密码解密
-        String password = RsaUtils.decryptByPrivateKey(RsaProperties.privateKey, authUser.getPassword());
+        String password = RsaUtils.decryptByPrivateKey(RsaProperties.key, authUser.getPassword());
         // 查询验证码
         String code = (String) redisUtils.get(authUser.getUuid());
         // 清除验证码
@@ -104,8 +104,8 @@ public class AuthorizationController {
             put("user", jwtUserDto);
         }};
         if (loginProperties.isSingleLogin()) {
-            // 踢掉之前已经登录的token
-            onlineUserService.kickOutForUsername(authUser.getUsername());
+            // 踢掉之前已经登录的token，同步执行，避免异步删除时误删本次登录的会话
+            onlineUserService.logoutByUsername(authUser.getUsername());
         }
         // 保存在线信息
         onlineUserService.save(jwtUserDto, token, request);
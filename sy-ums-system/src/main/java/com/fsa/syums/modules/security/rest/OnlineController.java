@@ -19,6 +19,8 @@ import com.fsa.syums.modules.security.service.OnlineUserService;
 import com.fsa.syums.modules.security.service.dto.OnlineUserDto;
 import com.fsa.syums.utils.EncryptUtils;
 import com.fsa.syums.utils.PageResult;
+import com.fsa.syums.utils.PageUtil;
+import com.fsa.syums.utils.StringUtils;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +31,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -45,15 +48,22 @@ public class OnlineController {
     @Operation(summary ="查询在线用户")
     @GetMapping
     @PreAuthorize("@el.check()")
-    public ResponseEntity<PageResult<OnlineUserDto>> queryOnlineUser(String username, Pageable pageable){
+    public ResponseEntity<PageResult<OnlineUserDto>> queryOnlineUser(String username, Boolean exact, Pageable pageable){
+        if (isExact(username, exact)) {
+            // 精确匹配直接读取用户索引，无需扫描全部会话
+            List<OnlineUserDto> onlineUserDtos = onlineUserService.getByUsername(username);
+            return new ResponseEntity<>(PageUtil.toPage(PageUtil.paging(pageable.getPageNumber(), pageable.getPageSize(), onlineUserDtos),
+                    onlineUserDtos.size()),HttpStatus.OK);
+        }
         return new ResponseEntity<>(onlineUserService.getAll(username, pageable),HttpStatus.OK);
     }
 
     @Operation(summary ="导出数据")
     @GetMapping(value = "/download")
     @PreAuthorize("@el.check()")
-    public void exportOnlineUser(HttpServletResponse response, String username) throws IOException {
-        onlineUserService.download(onlineUserService.getAll(username), response);
+    public void exportOnlineUser(HttpServletResponse response, String username, Boolean exact) throws IOException {
+        onlineUserService.download(isExact(username, exact) ? onlineUserService.getByUsername(username)
+                : onlineUserService.getAll(username), response);
     }
 
     @Operation(summary ="踢出用户")
@@ -67,4 +77,13 @@ public class OnlineController {
         }
         return new ResponseEntity<>(HttpStatus.OK);
     }
+
+    /**
+     * @param username 用户名
+     * @param exact    是否按用户名精确匹配
+     * @return /
+     */
+    private boolean isExact(String username, Boolean exact) {
+        return Boolean.TRUE.equals(exact) && StringUtils.isNotBlank(username);
+    }
 }
@@ -15,8 +15,6 @@
  */
 package com.fsa.syums.modules.security.security;
 
-import cn.hutool.core.date.DateField;
-import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.crypto.digest.DigestUtil;
 import io.jsonwebtoken.*;
@@ -24,7 +22,9 @@ import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import com.fsa.syums.modules.security.config.bean.SecurityProperties;
-import com.fsa.syums.utils.RedisUtils;
+import com.fsa.syums.modules.security.service.SessionRenewalManager;
+import com.fsa.syums.utils.NearCache;
+import com.fsa.syums.utils.NearCacheManager;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -32,8 +32,8 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import jakarta.servlet.http.HttpServletRequest;
 import java.security.Key;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 
 /**
  * @author 全栈架构师
@@ -43,14 +43,21 @@ import java.util.concurrent.TimeUnit;
 public class TokenProvider implements InitializingBean {
 
     private final SecurityProperties properties;
-    private final RedisUtils redisUtils;
+    private final SessionRenewalManager sessionRenewalManager;
+    private final NearCacheManager nearCacheManager;
     public static final String AUTHORITIES_KEY = "user";
+    /**
+     * 已验签 Token 本地缓存名称
+     */
+    private static final String CACHE_NAME = "token";
     private JwtParser jwtParser;
     private JwtBuilder jwtBuilder;
+    private NearCache<VerifiedToken> tokenCache;
 
-    public TokenProvider(SecurityProperties properties, RedisUtils redisUtils) {
+    public TokenProvider(SecurityProperties properties, SessionRenewalManager sessionRenewalManager, NearCacheManager nearCacheManager) {
         this.properties = properties;
-        this.redisUtils = redisUtils;
+        this.sessionRenewalManager = sessionRenewalManager;
+        this.nearCacheManager = nearCacheManager;
     }
 
     @Override
@@ -62,6 +69,7 @@ public class TokenProvider implements InitializingBean {
                 .build();
         jwtBuilder = Jwts.builder()
                 .signWith(key, SignatureAlgorithm.HS512);
+        tokenCache = nearCacheManager.getCache(CACHE_NAME, properties.getTokenCacheSize(), Duration.ofMillis(properties.getTokenCacheTtl()));
     }
 
     /**
@@ -87,31 +95,21 @@ public class TokenProvider implements InitializingBean {
      * @return /
      */
     Authentication getAuthentication(String token) {
-        Claims claims = getClaims(token);
-        User principal = new User(claims.getSubject(), "******", new ArrayList<>());
+        User principal = new User(verify(token).subject, "******", new ArrayList<>());
         return new UsernamePasswordAuthenticationToken(principal, token, new ArrayList<>());
     }
 
     public Claims getClaims(String token) {
-        return jwtParser
-                .parseClaimsJws(token)
-                .getBody();
+        return verify(token).claims;
     }
 
     /**
+     * 记录访问，由 {@link SessionRenewalManager} 异步批量续期
+     *
      * @param token 需要检查的token
      */
     public void checkRenewal(String token) {
-        // 判断是否续期token,计算token的过期时间
-        long time = redisUtils.getExpire(properties.getOnlineKey() + token) * 1000;
-        Date expireDate = DateUtil.offset(new Date(), DateField.MILLISECOND, (int) time);
-        // 判断当前时间与过期时间的时间差
-        long differ = expireDate.getTime() - System.currentTimeMillis();
-        // 如果在续期检查的范围内，则续期
-        if (differ <= properties.getDetect()) {
-            long renew = time + properties.getRenew();
-            redisUtils.expire(properties.getOnlineKey() + token, renew, TimeUnit.MILLISECONDS);
-        }
+        sessionRenewalManager.touch(loginKey(token));
     }
 
     public String getToken(HttpServletRequest request) {
@@ -128,8 +126,47 @@ public class TokenProvider implements InitializingBean {
      * @return key
      */
     public String loginKey(String token) {
-        Claims claims = getClaims(token);
-        String md5Token = DigestUtil.md5Hex(token);
-        return properties.getOnlineKey() + claims.getSubject() + "-" + md5Token;
+        return verify(token).loginKey;
+    }
+
+    /**
+     * 移除本节点缓存的验签结果，Token 不在节点间广播，其他节点的会话由在线用户缓存失效控制
+     *
+     * @param token /
+     */
+    public void evictToken(String token) {
+        nearCacheManager.evictLocal(CACHE_NAME, token);
+    }
+
+    /**
+     * 验签并解析Token，同一个Token只验签、计算摘要一次，验签失败的Token不缓存
+     *
+     * @param token /
+     * @return /
+     */
+    private VerifiedToken verify(String token) {
+        return tokenCache.get(token, t -> {
+            Claims claims = jwtParser.parseClaimsJws(t).getBody();
+            String loginKey = properties.getOnlineKey() + claims.getSubject() + "-" + DigestUtil.md5Hex(t);
+            return new VerifiedToken(claims.getSubject(), loginKey, claims);
+        });
+    }
+
+    /**
+     * 已验签的Token
+     */
+    private static final class VerifiedToken {
+
+        private final String subject;
+
+        private final String loginKey;
+
+        private final Claims claims;
+
+        private VerifiedToken(String subject, String loginKey, Claims claims) {
+            this.subject = subject;
+            this.loginKey = loginKey;
+            this.claims = claims;
+        }
     }
 }
@@ -24,16 +24,25 @@ import lombok.extern.slf4j.Slf4j;
 import com.fsa.syums.modules.security.config.bean.SecurityProperties;
 import com.fsa.syums.utils.*;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 /**
+ * 在线用户，会话按登录 key 保存，另外维护按登录时间、过期时间排序的有序集合以及用户名 -> 登录 key 的集合作为索引。
+ * 索引成员是未经值序列化的字符串，按用户名模糊查询时通过 ZSCAN MATCH 在 Redis 中过滤，
+ * 升级前以 JSON 字符串写入的成员（带引号）读取时去掉引号，移除时两种形式一起移除
+ *
  * @author 全栈架构师
  * @date 2023-9-26 21:56:27
  */
@@ -42,9 +51,36 @@ import java.util.concurrent.TimeUnit;
 @AllArgsConstructor
 public class OnlineUserService {
 
+    /**
+     * 在线用户索引：按登录时间排序
+     */
+    public static final String TIME_INDEX = "online-index:time";
+
+    /**
+     * 在线用户索引：按过期时间排序，用于清理已过期的会话
+     */
+    public static final String EXPIRE_INDEX = "online-index:expire";
+
+    /**
+     * 在线用户索引：用户名 -> 登录 key 集合
+     */
+    public static final String USER_INDEX = "online-index:user:";
+
+    /**
+     * 在线用户本地缓存名称
+     */
+    private static final String CACHE_NAME = "online-user";
+
+    /**
+     * 批量读取会话时每批的数量
+     */
+    private static final int BATCH_SIZE = 1000;
+
     private final SecurityProperties properties;
     private final TokenProvider tokenProvider;
     private final RedisUtils redisUtils;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final NearCacheManager nearCacheManager;
 
     /**
      * 保存在线用户信息
@@ -59,46 +95,59 @@ public class OnlineUserService {
         String browser = StringUtils.getBrowser(request);
         String address = StringUtils.getCityInfo(ip);
         OnlineUserDto onlineUserDto = null;
+        Date loginTime = new Date();
         try {
-            onlineUserDto = new OnlineUserDto(jwtUserDto.getUsername(), jwtUserDto.getUser().getNickName(), dept, browser, ip, address, EncryptUtils.desEncrypt(token), new Date());
+            onlineUserDto = new OnlineUserDto(jwtUserDto.getUsername(), jwtUserDto.getUser().getNickName(), dept, browser, ip, address, EncryptUtils.desEncrypt(token), loginTime);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
         String loginKey = tokenProvider.loginKey(token);
-        redisUtils.set(loginKey, onlineUserDto, properties.getTokenValidityInSeconds(), TimeUnit.MILLISECONDS);
+        // 会话与索引一次管道写入
+        redisUtils.batch()
+                .set(loginKey, onlineUserDto, properties.getTokenValidityInSeconds(), TimeUnit.MILLISECONDS)
+                .zAddString(TIME_INDEX, loginKey, loginTime.getTime())
+                .zAddString(EXPIRE_INDEX, loginKey, loginTime.getTime() + properties.getTokenValidityInSeconds())
+                .sAddString(USER_INDEX + jwtUserDto.getUsername(), loginKey)
+                .execute();
+        onlineUserCache().put(loginKey, onlineUserDto);
     }
 
     /**
-     * 查询全部数据
+     * 查询全部数据，只读取当前页的会话
      *
-     * @param username /
+     * @param username 用户名，模糊匹配
      * @param pageable /
      * @return /
      */
     public PageResult<OnlineUserDto> getAll(String username, Pageable pageable) {
-        List<OnlineUserDto> onlineUserDtos = getAll(username);
-        return PageUtil.toPage(
-                PageUtil.paging(pageable.getPageNumber(), pageable.getPageSize(), onlineUserDtos),
-                onlineUserDtos.size()
-        );
+        removeExpired();
+        long start = (long) pageable.getPageNumber() * pageable.getPageSize();
+        if (StringUtils.isNotBlank(username)) {
+            List<String> keys = findLoginKeys(username);
+            int from = (int) Math.min(start, keys.size());
+            int to = (int) Math.min(start + pageable.getPageSize(), keys.size());
+            return PageUtil.toPage(getByKeys(keys.subList(from, to)), keys.size());
+        }
+        List<String> keys = toKeys(stringRedisTemplate.opsForZSet().reverseRange(TIME_INDEX, start, start + pageable.getPageSize() - 1));
+        List<OnlineUserDto> onlineUserDtos = getByKeys(keys);
+        return PageUtil.toPage(onlineUserDtos, redisUtils.zCard(TIME_INDEX));
     }
 
     /**
      * 查询全部数据，不分页
      *
-     * @param username /
+     * @param username 用户名，模糊匹配
      * @return /
      */
     public List<OnlineUserDto> getAll(String username) {
-        String loginKey = properties.getOnlineKey() +
-                (StringUtils.isBlank(username) ? "" : "*" + username);
-        List<String> keys = redisUtils.scan(loginKey + "*");
-        Collections.reverse(keys);
-        List<OnlineUserDto> onlineUserDtos = new ArrayList<>();
-        for (String key : keys) {
-            onlineUserDtos.add((OnlineUserDto) redisUtils.get(key));
+        removeExpired();
+        List<String> keys = StringUtils.isBlank(username)
+                ? toKeys(stringRedisTemplate.opsForZSet().reverseRange(TIME_INDEX, 0, -1))
+                : findLoginKeys(username);
+        List<OnlineUserDto> onlineUserDtos = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i += BATCH_SIZE) {
+            onlineUserDtos.addAll(getByKeys(keys.subList(i, Math.min(i + BATCH_SIZE, keys.size()))));
         }
-        onlineUserDtos.sort((o1, o2) -> o2.getLoginTime().compareTo(o1.getLoginTime()));
         return onlineUserDtos;
     }
 
@@ -109,7 +158,11 @@ public class OnlineUserService {
      */
     public void logout(String token) {
         String loginKey = tokenProvider.loginKey(token);
-        redisUtils.del(loginKey);
+        RedisUtils.Batch batch = redisUtils.batch().del(loginKey);
+        removeIndex(batch, Collections.singletonList(loginKey));
+        batch.execute();
+        nearCacheManager.evict(CACHE_NAME, loginKey);
+        tokenProvider.evictToken(token);
     }
 
     /**
@@ -141,8 +194,19 @@ public class OnlineUserService {
      * @return /
      */
     public OnlineUserDto getOne(String key) {
-        Object obj = redisUtils.get(key);
-        return (OnlineUserDto) obj;
+        return onlineUserCache().get(key, k -> (OnlineUserDto) redisUtils.get(k));
+    }
+
+    /**
+     * 查询用户的全部会话
+     *
+     * @param username 用户名
+     * @return /
+     */
+    public List<OnlineUserDto> getByUsername(String username) {
+        List<OnlineUserDto> onlineUserDtos = getByKeys(getLoginKeys(username));
+        onlineUserDtos.sort((o1, o2) -> o2.getLoginTime().compareTo(o1.getLoginTime()));
+        return onlineUserDtos;
     }
 
     /**
@@ -152,7 +216,203 @@ public class OnlineUserService {
      */
     @Async
     public void kickOutForUsername(String username) {
-        String loginKey = properties.getOnlineKey() + username + "*";
-        redisUtils.scanDel(loginKey);
+        logoutByUsername(username);
+    }
+
+    /**
+     * 根据用户名强退用户，同步执行，用于单用户登录以及修改、重置密码
+     *
+     * @param username /
+     */
+    public void logoutByUsername(String username) {
+        String userIndex = USER_INDEX + username;
+        List<String> keys = getLoginKeys(username);
+        if (!keys.isEmpty()) {
+            // 会话、用户索引与时间索引一次管道删除
+            List<String> delKeys = new ArrayList<>(keys);
+            delKeys.add(userIndex);
+            RedisUtils.Batch batch = redisUtils.batch().del(delKeys.toArray(new String[0]));
+            removeIndex(batch, keys);
+            batch.execute();
+        }
+        nearCacheManager.evictByPrefix(CACHE_NAME, properties.getOnlineKey() + username + "-");
+    }
+
+    /**
+     * 从用户索引中读取用户的登录 key
+     *
+     * @param username 用户名
+     * @return /
+     */
+    private List<String> getLoginKeys(String username) {
+        return toKeys(stringRedisTemplate.opsForSet().members(USER_INDEX + username));
+    }
+
+    /**
+     * 通过 ZSCAN MATCH 在时间索引中查找用户名包含指定字符串的登录 key，只返回 key 不读取会话
+     *
+     * @param username 用户名，模糊匹配
+     * @return 按登录时间倒序的登录 key
+     */
+    private List<String> findLoginKeys(String username) {
+        // 登录 key 为 onlineKey + 用户名 + "-" + 摘要，摘要中没有 "-"，匹配内容只能落在用户名中
+        String pattern = "*" + escapePattern(properties.getOnlineKey()) + "*" + escapePattern(username) + "*-*";
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(1000).build();
+        List<ZSetOperations.TypedTuple<String>> tuples = new ArrayList<>();
+        try (Cursor<ZSetOperations.TypedTuple<String>> cursor = stringRedisTemplate.opsForZSet().scan(TIME_INDEX, options)) {
+            while (cursor.hasNext()) {
+                tuples.add(cursor.next());
+            }
+        }
+        tuples.sort((o1, o2) -> Double.compare(o2.getScore(), o1.getScore()));
+        Set<String> keys = new LinkedHashSet<>(tuples.size());
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            keys.add(toKey(tuple.getValue()));
+        }
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * 一次 MGET 读取会话，已不存在的会话同时从索引中移除
+     *
+     * @param keys 登录 key
+     * @return /
+     */
+    private List<OnlineUserDto> getByKeys(List<String> keys) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Object> values = redisUtils.multiGet(keys);
+        List<OnlineUserDto> onlineUserDtos = new ArrayList<>(keys.size());
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            Object value = values == null ? null : values.get(i);
+            if (value instanceof OnlineUserDto) {
+                onlineUserDtos.add((OnlineUserDto) value);
+            } else {
+                missing.add(keys.get(i));
+            }
+        }
+        removeIndex(missing);
+        return onlineUserDtos;
+    }
+
+    /**
+     * 清理已过期会话的索引，仍然存活的会话修正其过期时间
+     */
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        List<String> keys = toKeys(stringRedisTemplate.opsForZSet().rangeByScore(EXPIRE_INDEX, 0, now));
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<Long> expires = redisUtils.getExpires(keys);
+        List<String> expired = new ArrayList<>();
+        Map<String, Double> alive = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (expires.get(i) < 0) {
+                expired.add(keys.get(i));
+            } else {
+                alive.put(keys.get(i), (double) (now + expires.get(i)));
+            }
+        }
+        RedisUtils.Batch batch = redisUtils.batch();
+        removeIndex(batch, expired);
+        alive.forEach((key, score) -> batch.zRemoveString(EXPIRE_INDEX, legacyMember(key)).zAddString(EXPIRE_INDEX, key, score));
+        batch.execute();
+    }
+
+    /**
+     * 从索引中移除会话
+     *
+     * @param keys 登录 key
+     */
+    private void removeIndex(List<String> keys) {
+        RedisUtils.Batch batch = redisUtils.batch();
+        removeIndex(batch, keys);
+        batch.execute();
+    }
+
+    /**
+     * 将移除会话索引的命令加入批量操作
+     *
+     * @param batch 批量操作
+     * @param keys  登录 key
+     */
+    private void removeIndex(RedisUtils.Batch batch, List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        String[] members = new String[keys.size() * 2];
+        for (int i = 0; i < keys.size(); i++) {
+            members[2 * i] = keys.get(i);
+            members[2 * i + 1] = legacyMember(keys.get(i));
+        }
+        batch.zRemoveString(TIME_INDEX, members).zRemoveString(EXPIRE_INDEX, members);
+        for (String key : keys) {
+            batch.sRemoveString(USER_INDEX + getUsername(key), key, legacyMember(key));
+        }
+    }
+
+    /**
+     * 从登录 key 中解析用户名，登录 key 格式为 onlineKey + 用户名 + "-" + 32位摘要
+     *
+     * @param loginKey 登录 key
+     * @return 用户名
+     */
+    private String getUsername(String loginKey) {
+        return loginKey.substring(properties.getOnlineKey().length(), loginKey.length() - 33);
+    }
+
+    private List<String> toKeys(Collection<String> members) {
+        if (members == null) {
+            return new ArrayList<>();
+        }
+        Set<String> keys = new LinkedHashSet<>(members.size());
+        for (String member : members) {
+            keys.add(toKey(member));
+        }
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * 索引成员转为登录 key，去掉升级前 JSON 序列化带来的引号
+     */
+    private static String toKey(String member) {
+        if (member.length() > 1 && member.charAt(0) == '"' && member.charAt(member.length() - 1) == '"') {
+            return member.substring(1, member.length() - 1);
+        }
+        return member;
+    }
+
+    /**
+     * 升级前以 JSON 字符串写入的索引成员
+     */
+    private static String legacyMember(String key) {
+        return '"' + key + '"';
+    }
+
+    /**
+     * 转义 Redis 匹配规则中的特殊字符
+     */
+    private static String escapePattern(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 在线用户本地缓存，位于 Redis 之前，注销与强退时各节点同步失效
+     *
+     * @return /
+     */
+    private NearCache<OnlineUserDto> onlineUserCache() {
+        return nearCacheManager.getCache(CACHE_NAME, properties.getOnlineCacheSize(), Duration.ofMillis(properties.getOnlineCacheTtl()));
     }
 }
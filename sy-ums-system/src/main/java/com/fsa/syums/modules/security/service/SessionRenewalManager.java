@@ -0,0 +1,135 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.modules.security.service;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.fsa.syums.modules.security.config.bean.SecurityProperties;
+import com.fsa.syums.utils.RedisUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在线用户会话续期，请求线程只记录最后访问时间，
+ * 由后台线程按固定间隔合并后通过管道批量检查并续期，续期规则与 jwt.detect / jwt.renew 一致
+ *
+ * @author 全栈架构师
+ * @date 2023-12-06
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionRenewalManager implements InitializingBean, DisposableBean {
+
+    private final SecurityProperties properties;
+    private final RedisUtils redisUtils;
+
+    /**
+     * 待续期的会话：登录 key -> 最后访问时间
+     */
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+
+    /**
+     * 已知的会话过期时间：登录 key -> 过期时间戳，离过期还远的会话无需再查询 Redis
+     */
+    private final Map<String, Long> expireAt = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(ThreadFactoryBuilder.create()
+                .setNamePrefix("session-renewal-").setDaemon(true).build());
+        long interval = properties.getRenewFlushInterval();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+        flushQuietly();
+    }
+
+    /**
+     * 记录会话访问，不产生任何 Redis 请求
+     *
+     * @param loginKey 登录 key
+     */
+    public void touch(String loginKey) {
+        lastSeen.put(loginKey, System.currentTimeMillis());
+    }
+
+    /**
+     * 续期本次间隔内访问过且进入续期检查范围的会话
+     */
+    void flush() {
+        long now = System.currentTimeMillis();
+        expireAt.values().removeIf(time -> time <= now);
+        List<String> keys = new ArrayList<>();
+        List<Long> seenTimes = new ArrayList<>();
+        for (Iterator<Map.Entry<String, Long>> iterator = lastSeen.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<String, Long> entry = iterator.next();
+            iterator.remove();
+            Long knownExpireAt = expireAt.get(entry.getKey());
+            if (knownExpireAt != null && knownExpireAt - entry.getValue() > properties.getDetect()) {
+                continue;
+            }
+            keys.add(entry.getKey());
+            seenTimes.add(entry.getValue());
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<Long> expires = redisUtils.getExpires(keys);
+        Map<String, Long> renewals = new HashMap<>();
+        RedisUtils.Batch expireIndex = redisUtils.batch();
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            long time = expires.get(i);
+            if (time < 0) {
+                // 会话已失效或未设置过期时间
+                expireAt.remove(key);
+                continue;
+            }
+            // 判断最后访问时间与过期时间的时间差，如果在续期检查的范围内，则续期
+            if (now + time - seenTimes.get(i) <= properties.getDetect()) {
+                time += properties.getRenew();
+                renewals.put(key, time);
+                expireIndex.zAddString(OnlineUserService.EXPIRE_INDEX, key, now + time);
+            }
+            expireAt.put(key, now + time);
+        }
+        redisUtils.expires(renewals);
+        // 同步在线用户过期索引，索引成员为字符串
+        expireIndex.execute();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+}
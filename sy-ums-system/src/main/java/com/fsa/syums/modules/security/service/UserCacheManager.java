@@ -18,6 +18,8 @@ package com.fsa.syums.modules.security.service;
 import cn.hutool.core.util.RandomUtil;
 import com.fsa.syums.modules.security.service.dto.JwtUserDto;
 import com.fsa.syums.modules.security.config.bean.LoginProperties;
+import com.fsa.syums.utils.NearCache;
+import com.fsa.syums.utils.NearCacheManager;
 import com.fsa.syums.utils.RedisUtils;
 import com.fsa.syums.utils.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,58 +27,104 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.Resource;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Function;
+
 /**
  * @author 全栈架构师
- * @description 用户缓存管理
+ * @description 用户缓存管理，本地缓存 -> Redis -> 数据库 逐级读取，本地缓存通过发布/订阅在各节点间同步失效
  * @date 2022-05-26
  **/
 @Component
 public class UserCacheManager {
 
+    /**
+     * 用户本地缓存名称
+     */
+    private static final String CACHE_NAME = "login-user";
+
     @Resource
     private RedisUtils redisUtils;
+    @Resource
+    private NearCacheManager nearCacheManager;
     @Value("${login.user-cache.idle-time}")
     private long idleTime;
+    @Value("${login.user-cache.local-size:10000}")
+    private long localSize;
+    @Value("${login.user-cache.local-ttl:600}")
+    private long localTtl;
 
     /**
-     * 返回用户缓存
+     * 返回用户缓存，缓存中不存在时调用 loader 加载并写入缓存，
+     * 同一用户并发未命中时只会加载一次
      * @param userName 用户名
+     * @param loader 从数据库加载用户
      * @return JwtUserDto
      */
-    public JwtUserDto getUserCache(String userName) {
-        if (StringUtils.isNotEmpty(userName)) {
+    public JwtUserDto getUserCache(String userName, Function<String, JwtUserDto> loader) {
+        if (StringUtils.isEmpty(userName)) {
+            return loader.apply(userName);
+        }
+        return userCache().get(userName, k -> {
             // 获取数据
-            Object obj = redisUtils.get(LoginProperties.cacheKey + userName);
-            if(obj != null){
-                return (JwtUserDto)obj;
+            Object obj = redisUtils.get(LoginProperties.cacheKey + k);
+            if (obj != null) {
+                return (JwtUserDto) obj;
             }
-        }
-        return null;
+            JwtUserDto user = loader.apply(k);
+            if (user != null) {
+                setRedis(k, user);
+            }
+            return user;
+        });
     }
 
     /**
-     *  添加缓存到Redis
+     * 清理用户缓存信息
+     * 用户信息变更时
      * @param userName 用户名
      */
     @Async
-    public void addUserCache(String userName, JwtUserDto user) {
+    public void cleanUserCache(String userName) {
         if (StringUtils.isNotEmpty(userName)) {
-            // 添加数据, 避免数据同时过期
-            long time = idleTime + RandomUtil.randomInt(900, 1800);
-            redisUtils.set(LoginProperties.cacheKey + userName, user, time);
+            // 清除数据
+            redisUtils.del(LoginProperties.cacheKey + userName);
+            nearCacheManager.evict(CACHE_NAME, userName);
         }
     }
 
     /**
-     * 清理用户缓存信息
-     * 用户信息变更时
-     * @param userName 用户名
+     * 批量清理用户缓存信息，Redis 中的缓存一次删除
+     * 角色、菜单变更时
+     * @param userNames 用户名
      */
     @Async
-    public void cleanUserCache(String userName) {
-        if (StringUtils.isNotEmpty(userName)) {
-            // 清除数据
-            redisUtils.del(LoginProperties.cacheKey + userName);
+    public void cleanUserCache(Collection<String> userNames) {
+        String[] keys = userNames.stream().filter(StringUtils::isNotEmpty)
+                .map(userName -> LoginProperties.cacheKey + userName).toArray(String[]::new);
+        redisUtils.del(keys);
+        for (String userName : userNames) {
+            if (StringUtils.isNotEmpty(userName)) {
+                nearCacheManager.evict(CACHE_NAME, userName);
+            }
         }
     }
-}
\ No newline at end of file
+
+    private void setRedis(String userName, JwtUserDto user) {
+        // 添加数据, 避免数据同时过期
+        long time = idleTime + RandomUtil.randomInt(900, 1800);
+        redisUtils.set(LoginProperties.cacheKey + userName, user, time);
+    }
+
+    /**
+     * 用户本地缓存，空闲时间与 login.user-cache.idle-time 一致，
+     * 写入后最多存活 login.user-cache.local-ttl，之后从 Redis 重新读取
+     *
+     * @return /
+     */
+    private NearCache<JwtUserDto> userCache() {
+        return nearCacheManager.getIdleCache(CACHE_NAME, localSize, Duration.ofSeconds(idleTime),
+                Duration.ofSeconds(Math.min(localTtl, idleTime)));
+    }
+}
@@ -43,30 +43,33 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     @Override
     public JwtUserDto loadUserByUsername(String username) {
-        JwtUserDto jwtUserDto = userCacheManager.getUserCache(username);
-        if(jwtUserDto == null){
-            UserLoginDto user;
-            try {
-                user = userService.getLoginData(username);
-            } catch (EntityNotFoundException e) {
-                // SpringSecurity会自动转换UsernameNotFoundException为BadCredentialsException
-                throw new UsernameNotFoundException(username, e);
-            }
-            if (user == null) {
-                throw new UsernameNotFoundException("");
-            } else {
-                if (!user.getEnabled()) {
-                    throw new BadRequestException("账号未激活！");
-                }
-                jwtUserDto = new JwtUserDto(
-                        user,
-                        dataService.getDeptIds(user),
-                        roleService.mapToGrantedAuthorities(user)
-                );
-                // 添加缓存数据
-                userCacheManager.addUserCache(username, jwtUserDto);
-            }
+        return userCacheManager.getUserCache(username, this::loadUser);
+    }
+
+    /**
+     * 从数据库加载登录用户
+     *
+     * @param username 用户名
+     * @return /
+     */
+    private JwtUserDto loadUser(String username) {
+        UserLoginDto user;
+        try {
+            user = userService.getLoginData(username);
+        } catch (EntityNotFoundException e) {
+            // SpringSecurity会自动转换UsernameNotFoundException为BadCredentialsException
+            throw new UsernameNotFoundException(username, e);
+        }
+        if (user == null) {
+            throw new UsernameNotFoundException("");
+        }
+        if (!user.getEnabled()) {
+            throw new BadRequestException("账号未激活！");
         }
-        return jwtUserDto;
+        return new JwtUserDto(
+                user,
+                dataService.getDeptIds(user),
+                roleService.mapToGrantedAuthorities(user)
+        );
     }
 }
@@ -16,11 +16,12 @@
 package com.fsa.syums.modules.security.service.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import com.fsa.syums.modules.system.service.dto.UserLoginDto;
+import com.fsa.syums.utils.LoginPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -30,9 +31,8 @@ import java.util.stream.Collectors;
  * @date 2023-09-23
  */
 @Getter
-@AllArgsConstructor
 @NoArgsConstructor(force = true)
-public class JwtUserDto implements UserDetails {
+public class JwtUserDto implements UserDetails, LoginPrincipal.Provider {
 
     private final UserLoginDto user;
 
@@ -40,7 +40,29 @@ public class JwtUserDto implements UserDetails {
 
     private final List<AuthorityDto> authorities;
 
+    /**
+     * 由本对象解析出的登录用户快照，随本地缓存的用户对象复用，不参与序列化
+     */
+    private transient volatile LoginPrincipal loginPrincipal;
 
+    public JwtUserDto(UserLoginDto user, List<Long> dataScopes, List<AuthorityDto> authorities) {
+        this.user = user;
+        this.dataScopes = dataScopes;
+        this.authorities = authorities;
+    }
+
+    @Override
+    @JsonIgnore
+    public LoginPrincipal getLoginPrincipal() {
+        LoginPrincipal principal = loginPrincipal;
+        if (principal == null) {
+            Long deptId = user.getDept() == null ? user.getDeptId() : user.getDept().getId();
+            principal = new LoginPrincipal(user.getId(), deptId, user.getUsername(),
+                    dataScopes == null ? Collections.emptyList() : dataScopes, getRoles());
+            loginPrincipal = principal;
+        }
+        return principal;
+    }
 
     @JsonIgnore
     public Set<String> getRoles() {
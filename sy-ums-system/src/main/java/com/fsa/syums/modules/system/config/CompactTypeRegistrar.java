@@ -0,0 +1,47 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.modules.system.config;
+
+import com.fsa.syums.config.CompactRedisSerializer;
+import com.fsa.syums.modules.security.service.dto.AuthorityDto;
+import com.fsa.syums.modules.security.service.dto.JwtUserDto;
+import com.fsa.syums.modules.security.service.dto.OnlineUserDto;
+import com.fsa.syums.modules.system.service.dto.*;
+import org.springframework.stereotype.Component;
+
+/**
+ * 注册紧凑存储的缓存类型，编号已写入 Redis 中的数据，只能追加，不能修改或复用
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+@Component
+public class CompactTypeRegistrar implements CompactRedisSerializer.Registrar {
+
+    @Override
+    public void register(CompactRedisSerializer serializer) {
+        serializer.register(16, JwtUserDto.class)
+                .register(17, OnlineUserDto.class)
+                .register(18, UserDto.class)
+                .register(19, DeptDto.class)
+                .register(20, RoleDto.class)
+                .register(21, MenuDto.class)
+                .register(22, JobDto.class)
+                .register(23, DictDetailDto.class)
+                .register(24, AuthorityDto.class)
+                .register(25, ExportJobDto.class);
+    }
+}
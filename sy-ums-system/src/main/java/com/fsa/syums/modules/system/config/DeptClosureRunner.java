@@ -0,0 +1,48 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.modules.system.config;
+
+import com.fsa.syums.modules.system.repository.DeptRepository;
+import com.fsa.syums.modules.system.service.DeptService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 项目启动时检查部门闭包表，不存在时创建，为空且存在部门数据时（例如从旧版本升级）根据部门数据重建
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeptClosureRunner implements ApplicationRunner {
+
+    private final DeptRepository deptRepository;
+    private final DeptService deptService;
+
+    @Override
+    public void run(ApplicationArguments applicationArguments) {
+        deptRepository.createClosureTable();
+        if (deptRepository.countClosure() == 0 && deptRepository.count() > 0) {
+            deptService.rebuildClosure();
+            log.info("Dept closure rebuilt, {} relations", deptRepository.countClosure());
+        }
+    }
+}
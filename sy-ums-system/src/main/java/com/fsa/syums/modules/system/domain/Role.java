@@ -21,6 +21,7 @@ import com.fsa.syums.utils.enums.DataScopeEnum;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import jakarta.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -52,7 +53,8 @@ public class Role extends BaseEntity implements Serializable {
     @Schema(title = "用户", hidden = true)
     private Set<User> users;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany
+    @BatchSize(size = 100)
     @JoinTable(name = "sys_roles_menus",
             joinColumns = {@JoinColumn(name = "role_id",referencedColumnName = "role_id")},
             inverseJoinColumns = {@JoinColumn(name = "menu_id",referencedColumnName = "menu_id")})
@@ -60,6 +62,7 @@ public class Role extends BaseEntity implements Serializable {
     private Set<Menu> menus;
 
     @ManyToMany
+    @BatchSize(size = 100)
     @JoinTable(name = "sys_roles_depts",
             joinColumns = {@JoinColumn(name = "role_id",referencedColumnName = "role_id")},
             inverseJoinColumns = {@JoinColumn(name = "dept_id",referencedColumnName = "dept_id")})
@@ -20,6 +20,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -66,4 +68,96 @@ public interface DeptRepository extends JpaRepository<Dept, Long>, JpaSpecificat
     @Modifying
     @Query(value = " update sys_dept set sub_count = ?1 where dept_id = ?2 ",nativeQuery = true)
     void updateSubCntById(Integer count, Long id);
-}
\ No newline at end of file
+
+    /**
+     * 查询部门及其启用的下级部门ID，路径上任一部门停用则其下级不再计入，与逐级递归查询的结果一致
+     * @param ids 部门ID
+     * @return /
+     */
+    @Query(value = "select distinct c.descendant_id from sys_dept_closure c where c.ancestor_id in ?1 " +
+            "and not exists (select 1 from sys_dept_closure p join sys_dept d on d.dept_id = p.ancestor_id " +
+            "where p.descendant_id = c.descendant_id and p.depth < c.depth and d.enabled = 0)", nativeQuery = true)
+    List<Long> findEnabledDescendantIds(Collection<Long> ids);
+
+    /**
+     * 为新部门写入闭包关系：继承上级的全部祖先，并加入自身
+     * @param id 部门ID
+     * @param pid 上级部门ID
+     */
+    @Modifying
+    @Query(value = "insert into sys_dept_closure (ancestor_id, descendant_id, depth) " +
+            "select ancestor_id, ?1, depth + 1 from sys_dept_closure where descendant_id = ?2 " +
+            "union all select ?1, ?1, 0", nativeQuery = true)
+    void insertClosure(Long id, Long pid);
+
+    /**
+     * 移动部门前断开子树与原祖先的关系，子树内部的关系保持不变
+     * @param id 部门ID
+     */
+    @Modifying
+    @Query(value = "delete a from sys_dept_closure a " +
+            "join sys_dept_closure d on a.descendant_id = d.descendant_id " +
+            "left join sys_dept_closure x on x.ancestor_id = d.ancestor_id and x.descendant_id = a.ancestor_id " +
+            "where d.ancestor_id = ?1 and x.ancestor_id is null", nativeQuery = true)
+    void detachClosure(Long id);
+
+    /**
+     * 将子树挂到新的上级下
+     * @param id 部门ID
+     * @param pid 新的上级部门ID
+     */
+    @Modifying
+    @Query(value = "insert into sys_dept_closure (ancestor_id, descendant_id, depth) " +
+            "select p.ancestor_id, s.descendant_id, p.depth + s.depth + 1 " +
+            "from sys_dept_closure p join sys_dept_closure s on s.ancestor_id = ?1 " +
+            "where p.descendant_id = ?2", nativeQuery = true)
+    void attachClosure(Long id, Long pid);
+
+    /**
+     * 删除部门的闭包关系
+     * @param id 部门ID
+     */
+    @Modifying
+    @Query(value = "delete from sys_dept_closure where ancestor_id = ?1 or descendant_id = ?1", nativeQuery = true)
+    void deleteClosure(Long id);
+
+    /**
+     * 创建闭包表，从旧版本升级的数据库中不存在该表，结构与 sql/fsa-ums.sql 一致
+     */
+    @Modifying
+    @Transactional(rollbackFor = Exception.class)
+    @Query(value = "create table if not exists sys_dept_closure (" +
+            "ancestor_id bigint(20) not null comment '上级部门ID，包含自身', " +
+            "descendant_id bigint(20) not null comment '下级部门ID', " +
+            "depth int(5) not null comment '层级差，自身为0', " +
+            "primary key (ancestor_id, descendant_id) using btree, " +
+            "key inx_descendant (descendant_id, depth)" +
+            ") engine=InnoDB row_format=compact comment='部门闭包关系'", nativeQuery = true)
+    void createClosureTable();
+
+    /**
+     * 统计闭包关系数
+     * @return /
+     */
+    @Query(value = "select count(*) from sys_dept_closure", nativeQuery = true)
+    long countClosure();
+
+    /**
+     * 重建闭包关系第一步：每个部门指向自身
+     */
+    @Modifying
+    @Query(value = "insert into sys_dept_closure (ancestor_id, descendant_id, depth) " +
+            "select dept_id, dept_id, 0 from sys_dept", nativeQuery = true)
+    void insertSelfClosure();
+
+    /**
+     * 重建闭包关系：根据上一层的关系向下扩展一层
+     * @param depth 上一层的深度
+     * @return 写入的行数，为 0 时重建完成
+     */
+    @Modifying
+    @Query(value = "insert into sys_dept_closure (ancestor_id, descendant_id, depth) " +
+            "select c.ancestor_id, d.dept_id, c.depth + 1 from sys_dept d " +
+            "join sys_dept_closure c on c.descendant_id = d.pid where c.depth = ?1", nativeQuery = true)
+    int insertClosureLevel(int depth);
+}
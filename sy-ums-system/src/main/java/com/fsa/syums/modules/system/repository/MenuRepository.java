@@ -67,6 +67,13 @@ public interface MenuRepository extends JpaRepository<Menu, Long>, JpaSpecificat
             "m.menu_id = r.menu_id AND r.role_id IN ?1 AND type != ?2 order by m.menu_sort asc",nativeQuery = true)
     LinkedHashSet<Menu> findByRoleIdsAndTypeNot(Set<Long> roleIds, int type);
 
+    /**
+     * 查询所有权限标识
+     * @return /
+     */
+    @Query(value = "SELECT DISTINCT m.permission FROM Menu m WHERE m.permission IS NOT NULL")
+    Set<String> findAllPermissions();
+
     /**
      * 获取节点数量
      * @param id /
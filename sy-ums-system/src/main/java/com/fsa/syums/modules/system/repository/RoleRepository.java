@@ -52,6 +52,15 @@ public interface RoleRepository extends JpaRepository<Role, Long>, JpaSpecificat
             "r.role_id = u.role_id AND u.user_id = ?1",nativeQuery = true)
     Set<Role> findByUserId(Long id);
 
+    /**
+     * 根据用户ID查询菜单权限标识，无需加载角色与菜单实体
+     * @param id 用户ID
+     * @return /
+     */
+    @Query(value = "SELECT DISTINCT m.permission FROM sys_menu m, sys_roles_menus rm, sys_users_roles u WHERE " +
+            "m.menu_id = rm.menu_id AND rm.role_id = u.role_id AND u.user_id = ?1 AND m.permission IS NOT NULL",nativeQuery = true)
+    Set<String> findPermissionsByUserId(Long id);
+
     /**
      * 解绑角色菜单
      * @param id 菜单ID
@@ -16,6 +16,10 @@
 package com.fsa.syums.modules.system.repository;
 
 import com.fsa.syums.modules.system.domain.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
@@ -30,6 +34,25 @@ import java.util.Set;
  */
 public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
 
+    /**
+     * 分页查询，部门随用户一起连接查询，角色与岗位按页批量加载
+     * @param spec 查询条件
+     * @param pageable 分页参数
+     * @return /
+     */
+    @Override
+    @EntityGraph(attributePaths = "dept")
+    Page<User> findAll(Specification<User> spec, Pageable pageable);
+
+    /**
+     * 查询全部，部门随用户一起连接查询，角色与岗位批量加载
+     * @param spec 查询条件
+     * @return /
+     */
+    @Override
+    @EntityGraph(attributePaths = "dept")
+    List<User> findAll(Specification<User> spec);
+
     /**
      * 根据用户名查询
      * @param username 用户名
@@ -15,7 +15,6 @@
  */
 package com.fsa.syums.modules.system.rest;
 
-import cn.hutool.core.collection.CollectionUtil;
 import com.fsa.syums.annotation.Log;
 import com.fsa.syums.exception.BadRequestException;
 import com.fsa.syums.modules.system.domain.Dept;
@@ -72,7 +71,7 @@ public class DeptController {
         Set<DeptDto> deptSet  = new LinkedHashSet<>();
         for (Long id : ids) {
             DeptDto deptDto = deptService.findById(id);
-            List<DeptDto> depts = deptService.getSuperior(deptDto, new ArrayList<>());
+            List<DeptDto> depts = deptService.getSuperior(deptDto);
             if(exclude){
                 for (DeptDto dept : depts) {
                     if(dept.getId().equals(deptDto.getPid())) {
@@ -113,14 +112,7 @@ public class DeptController {
     @DeleteMapping
     @PreAuthorize("@el.check('dept:del')")
     public ResponseEntity<Object> deleteDept(@RequestBody Set<Long> ids){
-        Set<DeptDto> deptDtos = new HashSet<>();
-        for (Long id : ids) {
-            List<Dept> deptList = deptService.findByPid(id);
-            deptDtos.add(deptService.findById(id));
-            if(CollectionUtil.isNotEmpty(deptList)){
-                deptDtos = deptService.getDeleteDepts(deptList, deptDtos);
-            }
-        }
+        Set<DeptDto> deptDtos = deptService.getDeleteDepts(ids);
         // 验证是否被角色或用户关联
         deptService.verification(deptDtos);
         deptService.delete(deptDtos);
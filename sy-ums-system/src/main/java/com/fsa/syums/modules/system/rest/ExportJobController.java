@@ -0,0 +1,102 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.modules.system.rest;
+
+import com.fsa.syums.annotation.Log;
+import com.fsa.syums.modules.system.service.ExportJobService;
+import com.fsa.syums.modules.system.service.UserService;
+import com.fsa.syums.modules.system.service.dto.ExportJobDto;
+import com.fsa.syums.modules.system.service.dto.UserQueryCriteria;
+import com.fsa.syums.service.SysLogService;
+import com.fsa.syums.service.dto.SysLogQueryCriteria;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.*;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 后台导出，提交后立即返回任务，进度通过 WebSocket（sid 为 export-任务ID）推送，
+ * 任务ID 为随机 UUID，只返回给提交任务的用户，其他用户无法订阅，
+ * 完成后下载文件，下载支持 Range 断点续传
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "系统：后台导出")
+@RequestMapping("/api/exports")
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+    private final UserService userService;
+    private final SysLogService sysLogService;
+
+    @Log("后台导出用户数据")
+    @Operation(summary = "后台导出用户数据")
+    @PostMapping(value = "/users")
+    @PreAuthorize("@el.check('user:list')")
+    public ResponseEntity<ExportJobDto> exportUser(@RequestBody UserQueryCriteria criteria) {
+        return new ResponseEntity<>(exportJobService.submit("用户数据", (out, progress) ->
+                userService.writeExcel(criteria, out, progress)), HttpStatus.CREATED);
+    }
+
+    @Log("后台导出日志数据")
+    @Operation(summary = "后台导出日志数据")
+    @PostMapping(value = "/logs")
+    @PreAuthorize("@el.check()")
+    public ResponseEntity<ExportJobDto> exportLog(@RequestBody SysLogQueryCriteria criteria) {
+        criteria.setLogType("INFO");
+        return new ResponseEntity<>(exportJobService.submit("日志数据", (out, progress) ->
+                sysLogService.writeExcel(criteria, out, progress)), HttpStatus.CREATED);
+    }
+
+    @Log("后台导出错误日志数据")
+    @Operation(summary = "后台导出错误日志数据")
+    @PostMapping(value = "/logs/error")
+    @PreAuthorize("@el.check()")
+    public ResponseEntity<ExportJobDto> exportErrorLog(@RequestBody SysLogQueryCriteria criteria) {
+        criteria.setLogType("ERROR");
+        return new ResponseEntity<>(exportJobService.submit("错误日志数据", (out, progress) ->
+                sysLogService.writeExcel(criteria, out, progress)), HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "查询导出任务")
+    @GetMapping(value = "/{id}")
+    public ResponseEntity<ExportJobDto> queryExport(@PathVariable String id) {
+        return new ResponseEntity<>(exportJobService.findById(id), HttpStatus.OK);
+    }
+
+    @Operation(summary = "下载导出文件")
+    @GetMapping(value = "/{id}/file")
+    public ResponseEntity<Resource> downloadExport(@PathVariable String id) {
+        ExportJobDto job = exportJobService.findById(id);
+        Resource resource = new FileSystemResource(exportJobService.getFile(id));
+        // 返回 Resource 时 Spring 会处理 Range 请求头，按需返回 206 和对应的片段
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(job.getName() + ".xlsx", StandardCharsets.UTF_8).build().toString())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(resource);
+    }
+}
@@ -20,10 +20,11 @@ import com.fsa.syums.annotation.Log;
 import com.fsa.syums.base.BaseEntity;
 import com.fsa.syums.exception.BadRequestException;
 import com.fsa.syums.modules.system.domain.Menu;
-import com.fsa.syums.modules.system.domain.vo.MenuVo;
+import com.fsa.syums.modules.security.service.dto.JwtUserDto;
 import com.fsa.syums.modules.system.service.MenuService;
 import com.fsa.syums.modules.system.service.dto.MenuDto;
 import com.fsa.syums.modules.system.service.dto.MenuQueryCriteria;
+import com.fsa.syums.modules.system.service.dto.RoleSmallDto;
 import com.fsa.syums.modules.system.service.mapstruct.MenuMapper;
 import com.fsa.syums.utils.PageResult;
 import com.fsa.syums.utils.PageUtil;
@@ -32,6 +33,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -63,10 +65,10 @@ public class MenuController {
 
     @GetMapping(value = "/build")
     @Operation(summary ="获取前端所需菜单")
-    public ResponseEntity<List<MenuVo>> buildMenus(){
-        List<MenuDto> menuDtoList = menuService.findByUser(SecurityUtils.getCurrentUserId());
-        List<MenuDto> menus = menuService.buildTree(menuDtoList);
-        return new ResponseEntity<>(menuService.buildMenus(menus),HttpStatus.OK);
+    public ResponseEntity<byte[]> buildMenus(){
+        JwtUserDto jwtUserDto = (JwtUserDto) SecurityUtils.getCurrentUser();
+        Set<Long> roleIds = jwtUserDto.getUser().getRoles().stream().map(RoleSmallDto::getId).collect(Collectors.toSet());
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(menuService.buildMenus(roleIds));
     }
 
     @Operation(summary ="返回全部的菜单")
@@ -104,7 +106,7 @@ public class MenuController {
         if(CollectionUtil.isNotEmpty(ids)){
             for (Long id : ids) {
                 MenuDto menuDto = menuService.findById(id);
-                List<MenuDto> menuDtoList = menuService.getSuperior(menuDto, new ArrayList<>());
+                List<MenuDto> menuDtoList = menuService.getSuperior(menuDto);
                 for (MenuDto menu : menuDtoList) {
                     if(menu.getId().equals(menuDto.getPid())) {
                         menu.setSubCount(menu.getSubCount() - 1);
@@ -42,4 +42,11 @@ public class MonitorController {
     public ResponseEntity<Object> queryMonitor(){
         return new ResponseEntity<>(serverService.getServers(),HttpStatus.OK);
     }
+
+    @GetMapping(value = "/cache")
+    @Operation(summary ="查询缓存统计")
+    @PreAuthorize("@el.check('monitor:list')")
+    public ResponseEntity<Object> queryCache(){
+        return new ResponseEntity<>(serverService.getCaches(),HttpStatus.OK);
+    }
 }
@@ -19,7 +19,6 @@ import cn.hutool.core.collection.CollectionUtil;
 import com.fsa.syums.annotation.Log;
 import com.fsa.syums.config.RsaProperties;
 import com.fsa.syums.exception.BadRequestException;
-import com.fsa.syums.modules.system.domain.Dept;
 import com.fsa.syums.modules.system.domain.User;
 import com.fsa.syums.modules.system.domain.vo.UserPassVo;
 import com.fsa.syums.modules.system.service.dto.RoleSmallDto;
@@ -33,7 +32,6 @@ import com.fsa.syums.utils.enums.CodeEnum;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
-import com.fsa.syums.modules.system.service.DataService;
 import com.fsa.syums.modules.system.service.DeptService;
 import com.fsa.syums.modules.system.service.RoleService;
 import com.fsa.syums.modules.system.service.VerifyService;
@@ -66,7 +64,6 @@ public class UserController {
 
     private final PasswordEncoder passwordEncoder;
     private final UserService userService;
-    private final DataService dataService;
     private final DeptService deptService;
     private final RoleService roleService;
     private final VerifyService verificationCodeService;
@@ -75,7 +72,7 @@ public class UserController {
     @GetMapping(value = "/download")
     @PreAuthorize("@el.check('user:list')")
     public void exportUser(HttpServletResponse response, UserQueryCriteria criteria) throws IOException {
-        userService.download(userService.queryAll(criteria), response);
+        userService.download(criteria, response);
     }
 
     @Operation(summary ="查询用户")
@@ -84,13 +81,11 @@ public class UserController {
     public ResponseEntity<PageResult<UserDto>> queryUser(UserQueryCriteria criteria, Pageable pageable){
         if (!ObjectUtils.isEmpty(criteria.getDeptId())) {
             criteria.getDeptIds().add(criteria.getDeptId());
-            // 先查找是否存在子节点
-            List<Dept> data = deptService.findByPid(criteria.getDeptId());
-            // 然后把子节点的ID都加入到集合中
-            criteria.getDeptIds().addAll(deptService.getDeptChildren(data));
+            // 把启用的子节点ID都加入到集合中
+            criteria.getDeptIds().addAll(deptService.getDescendantIds(Collections.singleton(criteria.getDeptId())));
         }
         // 数据权限
-        List<Long> dataScopes = dataService.getDeptIds(userService.findByName(SecurityUtils.getCurrentUsername()));
+        List<Long> dataScopes = SecurityUtils.getCurrentUserDataScope();
         // criteria.getDeptIds() 不为空并且数据权限不为空则取交集
         if (!CollectionUtils.isEmpty(criteria.getDeptIds()) && !CollectionUtils.isEmpty(dataScopes)){
             // 取交集
@@ -158,8 +153,8 @@ public class UserController {
     @Operation(summary ="修改密码")
     @PostMapping(value = "/updatePass")
     public ResponseEntity<Object> updateUserPass(@RequestBody UserPassVo passVo) throws Exception {
-        String oldPass = RsaUtils.decryptByPrivateKey(RsaProperties.privateKey,passVo.getOldPass());
-        String newPass = RsaUtils.decryptByPrivateKey(RsaProperties.privateKey,passVo.getNewPass());
+        String oldPass = RsaUtils.decryptByPrivateKey(RsaProperties.key,passVo.getOldPass());
+        String newPass = RsaUtils.decryptByPrivateKey(RsaProperties.key,passVo.getNewPass());
         UserDto user = userService.findByName(SecurityUtils.getCurrentUsername());
         if(!passwordEncoder.matches(oldPass, user.getPassword())){
             throw new BadRequestException("修改失败，旧密码错误");
@@ -189,7 +184,7 @@ public class UserController {
     @Operation(summary ="修改邮箱")
     @PostMapping(value = "/updateEmail/{code}")
     public ResponseEntity<Object> updateUserEmail(@PathVariable String code,@RequestBody User user) throws Exception {
-        String password = RsaUtils.decryptByPrivateKey(RsaProperties.privateKey,user.getPassword());
+        String password = RsaUtils.decryptByPrivateKey(RsaProperties.key,user.getPassword());
         UserDto userDto = userService.findByName(SecurityUtils.getCurrentUsername());
         if(!passwordEncoder.matches(password, userDto.getPassword())){
             throw new BadRequestException("密码错误");
@@ -20,6 +20,7 @@ import com.fsa.syums.modules.system.service.dto.DeptQueryCriteria;
 import com.fsa.syums.modules.system.domain.Dept;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -87,20 +88,18 @@ public interface DeptService {
     void download(List<DeptDto> queryAll, HttpServletResponse response) throws IOException;
 
     /**
-     * 获取待删除的部门
-     * @param deptList /
-     * @param deptDtos /
+     * 获取待删除的部门，包含部门自身及其全部下级
+     * @param ids 部门ID
      * @return /
      */
-    Set<DeptDto> getDeleteDepts(List<Dept> deptList, Set<DeptDto> deptDtos);
+    Set<DeptDto> getDeleteDepts(Set<Long> ids);
 
     /**
      * 根据ID获取同级与上级数据
      * @param deptDto /
-     * @param depts /
      * @return /
      */
-    List<DeptDto> getSuperior(DeptDto deptDto, List<Dept> depts);
+    List<DeptDto> getSuperior(DeptDto deptDto);
 
     /**
      * 构建树形数据
@@ -116,6 +115,18 @@ public interface DeptService {
      */
     List<Long> getDeptChildren(List<Dept> deptList);
 
+    /**
+     * 获取部门及其启用的下级部门ID，通过部门闭包表一次查询
+     * @param ids 部门ID
+     * @return /
+     */
+    List<Long> getDescendantIds(Collection<Long> ids);
+
+    /**
+     * 根据部门数据重建部门闭包表，闭包表为空时在启动时调用
+     */
+    void rebuildClosure();
+
     /**
      * 验证是否被角色或用户关联
      * @param deptDtos /
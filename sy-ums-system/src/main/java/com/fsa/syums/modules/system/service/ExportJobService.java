@@ -0,0 +1,69 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.modules.system.service;
+
+import com.fsa.syums.modules.system.service.dto.ExportJobDto;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * 后台导出任务，导出在独立的线程池中执行，文件保存到存储目录下的 export 目录并保留一天，进度通过 WebSocket 推送
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+public interface ExportJobService {
+
+    /**
+     * 提交导出任务
+     * @param name 导出名称
+     * @param task 写出 Excel 的任务
+     * @return 任务
+     */
+    ExportJobDto submit(String name, ExportTask task);
+
+    /**
+     * 查询当前用户的导出任务
+     * @param id 任务ID
+     * @return /
+     */
+    ExportJobDto findById(String id);
+
+    /**
+     * 获取当前用户已完成任务的导出文件
+     * @param id 任务ID
+     * @return /
+     */
+    File getFile(String id);
+
+    /**
+     * 写出 Excel 的任务
+     */
+    @FunctionalInterface
+    interface ExportTask {
+
+        /**
+         * 写出数据
+         * @param out 输出流
+         * @param progress 已写出行数的回调
+         * @throws IOException /
+         */
+        void write(OutputStream out, LongConsumer progress) throws IOException;
+    }
+}
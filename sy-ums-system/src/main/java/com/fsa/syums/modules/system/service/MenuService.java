@@ -31,6 +31,11 @@ import java.util.Set;
  */
 public interface MenuService {
 
+    /**
+     * 前端菜单的本地缓存名称，键为角色ID指纹，值为序列化后的菜单
+     */
+    String NAV_CACHE = "menu-nav";
+
     /**
      * 查询全部数据
      * @param criteria 条件
@@ -81,6 +86,13 @@ public interface MenuService {
      */
     List<MenuVo> buildMenus(List<MenuDto> menuDtos);
 
+    /**
+     * 获取前端所需菜单，拥有相同角色的用户共用同一份序列化结果
+     * @param roleIds 角色ID
+     * @return JSON
+     */
+    byte[] buildMenus(Set<Long> roleIds);
+
     /**
      * 根据ID查询
      * @param id /
@@ -112,10 +124,9 @@ public interface MenuService {
     /**
      * 根据ID获取同级与上级数据
      * @param menuDto /
-     * @param objects /
      * @return /
      */
-    List<MenuDto> getSuperior(MenuDto menuDto, List<Menu> objects);
+    List<MenuDto> getSuperior(MenuDto menuDto);
 
     /**
      * 根据当前用户获取菜单
@@ -28,4 +28,10 @@ public interface MonitorService {
     * @return Map<String,Object>
     */
     Map<String,Object> getServers();
+
+    /**
+    * 查询本地缓存统计
+    * @return Map<String,Object>
+    */
+    Map<String,Object> getCaches();
 }
@@ -24,9 +24,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.LongConsumer;
 
 /**
  * @author 全栈架构师
@@ -118,6 +120,23 @@ public interface UserService {
      */
     void download(List<UserDto> queryAll, HttpServletResponse response) throws IOException;
 
+    /**
+     * 流式导出数据，按批读取数据库并直接写入响应
+     * @param criteria 条件
+     * @param response /
+     * @throws IOException /
+     */
+    void download(UserQueryCriteria criteria, HttpServletResponse response) throws IOException;
+
+    /**
+     * 流式导出数据到输出流，用于后台导出任务
+     * @param criteria 条件
+     * @param out 输出流，不会被关闭
+     * @param progress 每写出一行回调一次已写出的行数
+     * @throws IOException /
+     */
+    void writeExcel(UserQueryCriteria criteria, OutputStream out, LongConsumer progress) throws IOException;
+
     /**
      * 用户自助修改资料
      * @param resources /
@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.modules.system.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 后台导出任务，忽略未知字段以兼容升级前写入 Redis 的任务
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ExportJobDto implements Serializable {
+
+    public static final String WAITING = "WAITING";
+    public static final String RUNNING = "RUNNING";
+    public static final String SUCCESS = "SUCCESS";
+    public static final String FAILED = "FAILED";
+
+    private String id;
+
+    /**
+     * 导出名称
+     */
+    private String name;
+
+    /**
+     * 提交任务的用户，只有该用户可以下载
+     */
+    private String username;
+
+    /**
+     * 状态：WAITING、RUNNING、SUCCESS、FAILED
+     */
+    private String status;
+
+    /**
+     * 已写出的行数
+     */
+    private long rows;
+
+    /**
+     * 导出文件名
+     */
+    private String fileName;
+
+    /**
+     * 失败原因
+     */
+    private String message;
+
+    private Date createTime;
+
+    private Date finishTime;
+}
@@ -15,6 +15,8 @@
  */
 package com.fsa.syums.modules.system.service.impl;
 
+import com.fsa.syums.utils.CacheKey;
+import com.fsa.syums.utils.CacheTagManager;
 import com.fsa.syums.utils.enums.DataScopeEnum;
 import lombok.RequiredArgsConstructor;
 import com.fsa.syums.modules.system.domain.Dept;
@@ -27,6 +29,7 @@ import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * @author 全栈架构师
@@ -41,6 +44,7 @@ public class DataServiceImpl implements DataService {
 
     private final RoleService roleService;
     private final DeptService deptService;
+    private final CacheTagManager cacheTagManager;
 
     /**
      * 用户角色和用户部门改变时需清理缓存
@@ -48,12 +52,23 @@ public class DataServiceImpl implements DataService {
      * @return /
      */
     @Override
-    @Cacheable(key = "'user:' + #p0.id")
+    @Cacheable(key = "'user:' + #p0.id", sync = true)
     public List<Long> getDeptIds(UserDto user) {
-        // 用于存储部门id
-        Set<Long> deptIds = new HashSet<>();
         // 查询用户角色
         List<RoleSmallDto> roleSet = roleService.findByUsersId(user.getId());
+        List<Long> deptIds = getDeptIds(user, roleSet);
+        // 登记依赖：用户、角色以及数据权限内的部门，任一变化时该缓存失效
+        List<String> tags = new ArrayList<>();
+        tags.add(CacheKey.TAG_USER + user.getId());
+        roleSet.forEach(role -> tags.add(CacheKey.TAG_ROLE + role.getId()));
+        deptIds.forEach(deptId -> tags.add(CacheKey.TAG_DEPT + deptId));
+        cacheTagManager.tag(CacheKey.DATA_USER + user.getId(), tags);
+        return deptIds;
+    }
+
+    private List<Long> getDeptIds(UserDto user, List<RoleSmallDto> roleSet) {
+        // 用于存储部门id
+        Set<Long> deptIds = new HashSet<>();
         // 获取对应的部门ID
         for (RoleSmallDto role : roleSet) {
             DataScopeEnum dataScopeEnum = DataScopeEnum.find(role.getDataScope());
@@ -78,14 +93,11 @@ public class DataServiceImpl implements DataService {
      * @return 数据权限ID
      */
     public Set<Long> getCustomize(Set<Long> deptIds, RoleSmallDto role){
-        Set<Dept> depts = deptService.findByRoleId(role.getId());
-        for (Dept dept : depts) {
-            deptIds.add(dept.getId());
-            List<Dept> deptChildren = deptService.findByPid(dept.getId());
-            if (deptChildren != null && deptChildren.size() != 0) {
-                deptIds.addAll(deptService.getDeptChildren(deptChildren));
-            }
-        }
+        Set<Long> roleDeptIds = deptService.findByRoleId(role.getId()).stream()
+                .map(Dept::getId).collect(Collectors.toSet());
+        // 角色部门本身始终计入，下级部门通过闭包表一次查出
+        deptIds.addAll(roleDeptIds);
+        deptIds.addAll(deptService.getDescendantIds(roleDeptIds));
         return deptIds;
     }
 }
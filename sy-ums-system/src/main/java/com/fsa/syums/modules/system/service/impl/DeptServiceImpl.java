@@ -26,7 +26,6 @@ import com.fsa.syums.utils.*;
 import com.fsa.syums.utils.enums.DataScopeEnum;
 import lombok.RequiredArgsConstructor;
 import com.fsa.syums.modules.system.domain.Dept;
-import com.fsa.syums.modules.system.domain.User;
 import com.fsa.syums.modules.system.service.dto.DeptDto;
 import com.fsa.syums.modules.system.service.dto.DeptQueryCriteria;
 import com.fsa.syums.utils.*;
@@ -39,6 +38,7 @@ import org.springframework.transaction.annotation.Transactional;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -54,8 +54,12 @@ public class DeptServiceImpl implements DeptService {
     private final DeptRepository deptRepository;
     private final DeptMapper deptMapper;
     private final UserRepository userRepository;
-    private final RedisUtils redisUtils;
     private final RoleRepository roleRepository;
+    private final NearCacheManager nearCacheManager;
+    private final CacheTagManager cacheTagManager;
+
+    private static final String TREE_CACHE = "dept-tree";
+    private static final String TREE_KEY = "snapshot";
 
     @Override
     public List<DeptDto> queryAll(DeptQueryCriteria criteria, Boolean isQuery) throws Exception {
@@ -110,6 +114,8 @@ public class DeptServiceImpl implements DeptService {
     @Transactional(rollbackFor = Exception.class)
     public void create(Dept resources) {
         deptRepository.save(resources);
+        // 维护部门闭包关系
+        deptRepository.insertClosure(resources.getId(), resources.getPid());
         // 计算子节点数目
         resources.setSubCount(0);
         // 清理缓存
@@ -129,13 +135,24 @@ public class DeptServiceImpl implements DeptService {
         }
         Dept dept = deptRepository.findById(resources.getId()).orElseGet(Dept::new);
         ValidationUtil.isNull( dept.getId(),"Dept","id",resources.getId());
+        if(newPid != null && !newPid.equals(oldPid) && getTree().isDescendant(resources.getId(), newPid)) {
+            throw new BadRequestException("上级不能为自己的下级部门");
+        }
         resources.setId(dept.getId());
         deptRepository.save(resources);
+        // 上级变化时将整棵子树移动到新的上级下
+        if(!Objects.equals(oldPid, newPid)) {
+            deptRepository.detachClosure(resources.getId());
+            if(newPid != null) {
+                deptRepository.attachClosure(resources.getId(), newPid);
+            }
+        }
         // 更新父节点中子节点数目
         updateSubCnt(oldPid);
         updateSubCnt(newPid);
-        // 清理缓存
+        // 清理缓存，部门启停或移动会改变原上级与新上级所在数据权限的范围
         delCaches(resources.getId());
+        cacheTagManager.invalidate(CacheKey.TAG_DEPT, Arrays.asList(oldPid, newPid));
     }
 
     @Override
@@ -144,6 +161,7 @@ public class DeptServiceImpl implements DeptService {
         for (DeptDto deptDto : deptDtos) {
             // 清理缓存
             delCaches(deptDto.getId());
+            deptRepository.deleteClosure(deptDto.getId());
             deptRepository.deleteById(deptDto.getId());
             updateSubCnt(deptDto.getPid());
         }
@@ -163,71 +181,72 @@ public class DeptServiceImpl implements DeptService {
     }
 
     @Override
-    public Set<DeptDto> getDeleteDepts(List<Dept> menuList, Set<DeptDto> deptDtos) {
-        for (Dept dept : menuList) {
-            deptDtos.add(deptMapper.toDto(dept));
-            List<Dept> depts = deptRepository.findByPid(dept.getId());
-            if(depts!=null && depts.size()!=0){
-                getDeleteDepts(depts, deptDtos);
-            }
+    public Set<DeptDto> getDeleteDepts(Set<Long> ids) {
+        DeptTree tree = getTree();
+        Set<DeptDto> deptDtos = new LinkedHashSet<>();
+        for (Long id : ids) {
+            ValidationUtil.isNull(tree.get(id),"Dept","id",id);
+            tree.getSubtree(id).forEach(dept -> deptDtos.add(deptMapper.copy(dept)));
         }
         return deptDtos;
     }
 
     @Override
     public List<Long> getDeptChildren(List<Dept> deptList) {
-        List<Long> list = new ArrayList<>();
-        deptList.forEach(dept -> {
-                    if (dept!=null && dept.getEnabled()) {
-                        List<Dept> depts = deptRepository.findByPid(dept.getId());
-                        if (depts.size() != 0) {
-                            list.addAll(getDeptChildren(depts));
-                        }
-                        list.add(dept.getId());
-                    }
-                }
-        );
-        return list;
+        Set<Long> ids = deptList.stream().filter(dept -> dept != null && dept.getEnabled())
+                .map(Dept::getId).collect(Collectors.toSet());
+        return getDescendantIds(ids);
     }
 
     @Override
-    public List<DeptDto> getSuperior(DeptDto deptDto, List<Dept> depts) {
-        if(deptDto.getPid() == null){
-            depts.addAll(deptRepository.findByPidIsNull());
-            return deptMapper.toDto(depts);
+    public List<Long> getDescendantIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
         }
-        depts.addAll(deptRepository.findByPid(deptDto.getPid()));
-        return getSuperior(findById(deptDto.getPid()), depts);
+        return deptRepository.findEnabledDescendantIds(ids);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void rebuildClosure() {
+        deptRepository.insertSelfClosure();
+        int depth = 0;
+        while (deptRepository.insertClosureLevel(depth) > 0) {
+            depth++;
+        }
+    }
+
+    @Override
+    public List<DeptDto> getSuperior(DeptDto deptDto) {
+        return getTree().getSuperior(deptDto.getId()).stream().map(deptMapper::copy).collect(Collectors.toList());
     }
 
     @Override
     public Object buildTree(List<DeptDto> deptDtos) {
+        Map<Long, DeptDto> deptMap = new HashMap<>(deptDtos.size() * 4 / 3 + 1);
+        deptDtos.forEach(deptDTO -> deptMap.put(deptDTO.getId(), deptDTO));
         Set<DeptDto> trees = new LinkedHashSet<>();
-        Set<DeptDto> depts= new LinkedHashSet<>();
-        List<String> deptNames = deptDtos.stream().map(DeptDto::getName).collect(Collectors.toList());
-        boolean isChild;
         for (DeptDto deptDTO : deptDtos) {
-            isChild = false;
             if (deptDTO.getPid() == null) {
                 trees.add(deptDTO);
+                continue;
             }
-            for (DeptDto it : deptDtos) {
-                if (it.getPid() != null && deptDTO.getId().equals(it.getPid())) {
-                    isChild = true;
-                    if (deptDTO.getChildren() == null) {
-                        deptDTO.setChildren(new ArrayList<>());
-                    }
-                    deptDTO.getChildren().add(it);
+            DeptDto parent = deptMap.get(deptDTO.getPid());
+            if (parent != null) {
+                if (parent.getChildren() == null) {
+                    parent.setChildren(new ArrayList<>());
                 }
-            }
-            if(isChild) {
-                depts.add(deptDTO);
-            } else if(deptDTO.getPid() != null &&  !deptNames.contains(findById(deptDTO.getPid()).getName())) {
-                depts.add(deptDTO);
+                parent.getChildren().add(deptDTO);
             }
         }
-
         if (CollectionUtil.isEmpty(trees)) {
+            // 没有顶级部门时，以有下级的部门和上级不在结果中的部门作为根
+            Set<DeptDto> depts = new LinkedHashSet<>();
+            for (DeptDto deptDTO : deptDtos) {
+                if (deptDTO.getChildren() != null || !deptMap.containsKey(deptDTO.getPid())) {
+                    depts.add(deptDTO);
+                }
+            }
             trees = depts;
         }
         Map<String,Object> map = new HashMap<>(2);
@@ -255,20 +274,17 @@ public class DeptServiceImpl implements DeptService {
     }
 
     private List<DeptDto> deduplication(List<DeptDto> list) {
-        List<DeptDto> deptDtos = new ArrayList<>();
-        for (DeptDto deptDto : list) {
-            boolean flag = true;
-            for (DeptDto dto : list) {
-                if (dto.getId().equals(deptDto.getPid())) {
-                    flag = false;
-                    break;
-                }
-            }
-            if (flag){
-                deptDtos.add(deptDto);
-            }
-        }
-        return deptDtos;
+        Set<Long> ids = list.stream().map(DeptDto::getId).collect(Collectors.toSet());
+        return list.stream().filter(deptDto -> !ids.contains(deptDto.getPid())).collect(Collectors.toList());
+    }
+
+    /**
+     * 获取部门树快照，部门变更后在事务提交时失效，下次访问时重建
+     * @return /
+     */
+    private DeptTree getTree() {
+        NearCache<DeptTree> cache = nearCacheManager.getCache(TREE_CACHE, 1, Duration.ofHours(1));
+        return cache.get(TREE_KEY, key -> DeptTree.build(deptMapper.toDto(deptRepository.findAll(Sort.by(Sort.Direction.ASC, "deptSort")))));
     }
 
     /**
@@ -276,9 +292,9 @@ public class DeptServiceImpl implements DeptService {
      * @param id /
      */
     public void delCaches(Long id){
-        List<User> users = userRepository.findByRoleDeptId(id);
-        // 删除数据权限
-        redisUtils.delByKeys(CacheKey.DATA_USER, users.stream().map(User::getId).collect(Collectors.toSet()));
-        redisUtils.del(CacheKey.DEPT_ID + id);
+        // 删除数据权限包含该部门的用户的数据权限缓存
+        cacheTagManager.invalidate(CacheKey.TAG_DEPT, Collections.singleton(id));
+        cacheTagManager.evict(CacheKey.DEPT_ID + id);
+        nearCacheManager.evictAfterCommit(TREE_CACHE, TREE_KEY);
     }
 }
@@ -0,0 +1,152 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.modules.system.service.impl;
+
+import com.fsa.syums.modules.system.service.dto.DeptDto;
+
+import java.util.*;
+
+/**
+ * 部门树快照，由全部部门一次线性构建，构建后不再修改，可在请求之间共享。
+ * 部门变更时整体丢弃并重建，节点中的 {@link DeptDto} 仅作模板，对外返回前需要复制
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+final class DeptTree {
+
+    private static final Node[] EMPTY = new Node[0];
+
+    private final Map<Long, Node> nodes;
+
+    private final Node[] roots;
+
+    private DeptTree(Map<Long, Node> nodes, Node[] roots) {
+        this.nodes = nodes;
+        this.roots = roots;
+    }
+
+    /**
+     * 构建部门树
+     *
+     * @param depts 全部部门，按排序号排列，同级节点保持该顺序
+     * @return /
+     */
+    static DeptTree build(List<DeptDto> depts) {
+        Map<Long, Node> nodes = new HashMap<>(depts.size() * 4 / 3 + 1);
+        for (DeptDto dept : depts) {
+            nodes.put(dept.getId(), new Node(dept));
+        }
+        Map<Node, List<Node>> children = new HashMap<>(nodes.size() * 4 / 3 + 1);
+        List<Node> roots = new ArrayList<>();
+        for (DeptDto dept : depts) {
+            Node node = nodes.get(dept.getId());
+            Node parent = dept.getPid() == null ? null : nodes.get(dept.getPid());
+            // 上级不存在的部门同样作为顶级节点，避免脏数据导致部门丢失
+            if (parent == null || parent == node) {
+                roots.add(node);
+            } else {
+                node.parent = parent;
+                children.computeIfAbsent(parent, k -> new ArrayList<>()).add(node);
+            }
+        }
+        children.forEach((parent, list) -> parent.children = list.toArray(EMPTY));
+        return new DeptTree(Collections.unmodifiableMap(nodes), roots.toArray(EMPTY));
+    }
+
+    /**
+     * @param id 部门ID
+     * @return 部门，不存在返回 null
+     */
+    DeptDto get(Long id) {
+        Node node = nodes.get(id);
+        return node == null ? null : node.dept;
+    }
+
+    /**
+     * 获取部门自身所在层级及每一级上级所在层级的全部部门，从本级开始直到顶级
+     *
+     * @param id 部门ID
+     * @return /
+     */
+    List<DeptDto> getSuperior(Long id) {
+        List<DeptDto> list = new ArrayList<>();
+        Node node = nodes.get(id);
+        // 以节点数为上限，防止数据成环时死循环
+        for (int i = 0; node != null && i < nodes.size(); i++) {
+            for (Node sibling : node.parent == null ? roots : node.parent.children) {
+                list.add(sibling.dept);
+            }
+            node = node.parent;
+        }
+        return list;
+    }
+
+    /**
+     * 获取部门及其全部下级部门，先序排列
+     *
+     * @param id 部门ID
+     * @return /
+     */
+    List<DeptDto> getSubtree(Long id) {
+        List<DeptDto> list = new ArrayList<>();
+        Node root = nodes.get(id);
+        if (root == null) {
+            return list;
+        }
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty() && list.size() < nodes.size()) {
+            Node node = stack.pop();
+            list.add(node.dept);
+            for (int i = node.children.length - 1; i >= 0; i--) {
+                stack.push(node.children[i]);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 判断部门是否为另一部门自身或其下级
+     *
+     * @param ancestorId 上级部门ID
+     * @param id         部门ID
+     * @return /
+     */
+    boolean isDescendant(Long ancestorId, Long id) {
+        Node node = nodes.get(id);
+        for (int i = 0; node != null && i < nodes.size(); i++) {
+            if (node.dept.getId().equals(ancestorId)) {
+                return true;
+            }
+            node = node.parent;
+        }
+        return false;
+    }
+
+    private static final class Node {
+
+        private final DeptDto dept;
+
+        private Node parent;
+
+        private Node[] children = EMPTY;
+
+        private Node(DeptDto dept) {
+            this.dept = dept;
+        }
+    }
+}
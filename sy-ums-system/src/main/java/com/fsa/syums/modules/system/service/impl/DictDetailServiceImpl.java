@@ -47,7 +47,7 @@ public class DictDetailServiceImpl implements DictDetailService {
     private final DictRepository dictRepository;
     private final DictDetailRepository dictDetailRepository;
     private final DictDetailMapper dictDetailMapper;
-    private final RedisUtils redisUtils;
+    private final CacheTagManager cacheTagManager;
 
     @Override
     public PageResult<DictDetailDto> queryAll(DictDetailQueryCriteria criteria, Pageable pageable) {
@@ -75,7 +75,7 @@ public class DictDetailServiceImpl implements DictDetailService {
     }
 
     @Override
-    @Cacheable(key = "'name:' + #p0")
+    @Cacheable(key = "'name:' + #p0", sync = true)
     public List<DictDetailDto> getDictByName(String name) {
         return dictDetailMapper.toDto(dictDetailRepository.findByDictName(name));
     }
@@ -91,6 +91,6 @@ public class DictDetailServiceImpl implements DictDetailService {
 
     public void delCaches(DictDetail dictDetail){
         Dict dict = dictRepository.findById(dictDetail.getDict().getId()).orElseGet(Dict::new);
-        redisUtils.del(CacheKey.DICT_NAME + dict.getName());
+        cacheTagManager.evict(CacheKey.DICT_NAME + dict.getName());
     }
 }
@@ -47,7 +47,7 @@ public class DictServiceImpl implements DictService {
 
     private final DictRepository dictRepository;
     private final DictMapper dictMapper;
-    private final RedisUtils redisUtils;
+    private final CacheTagManager cacheTagManager;
 
     @Override
     public PageResult<DictDto> queryAll(DictQueryCriteria dict, Pageable pageable){
@@ -118,6 +118,6 @@ public class DictServiceImpl implements DictService {
     }
 
     public void delCaches(Dict dict){
-        redisUtils.del(CacheKey.DICT_NAME + dict.getName());
+        cacheTagManager.evict(CacheKey.DICT_NAME + dict.getName());
     }
 }
@@ -0,0 +1,210 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.modules.system.service.impl;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.IdUtil;
+import com.fsa.syums.config.FileProperties;
+import com.fsa.syums.exception.BadRequestException;
+import com.fsa.syums.modules.mnt.websocket.MsgType;
+import com.fsa.syums.modules.mnt.websocket.SocketMsg;
+import com.fsa.syums.modules.mnt.websocket.WebSocketServer;
+import com.fsa.syums.modules.system.service.ExportJobService;
+import com.fsa.syums.modules.system.service.dto.ExportJobDto;
+import com.fsa.syums.utils.JSONUtil;
+import com.fsa.syums.utils.RedisUtils;
+import com.fsa.syums.utils.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.Resource;
+import java.io.*;
+import java.util.Date;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导出文件写入存储目录下的 export 目录，不登记为本地存储，
+ * 任务状态过期后文件无法再下载，由后台线程定期删除超过保留时间的文件
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportJobServiceImpl implements ExportJobService, InitializingBean, DisposableBean {
+
+    private static final String KEY = "export-job:";
+
+    /**
+     * 任务状态保留一天
+     */
+    private static final long EXPIRE = 24 * 60 * 60;
+
+    /**
+     * 每写出多少行推送一次进度
+     */
+    private static final long PROGRESS_STEP = 1000;
+
+    /**
+     * 清理过期导出文件的间隔/小时
+     */
+    private static final long CLEAN_INTERVAL = 1;
+
+    private final RedisUtils redisUtils;
+    private final FileProperties properties;
+
+    @Resource(name = "exportAsync")
+    private Executor exportAsync;
+
+    private ScheduledExecutorService cleaner;
+
+    @Override
+    public void afterPropertiesSet() {
+        cleaner = Executors.newSingleThreadScheduledExecutor(ThreadFactoryBuilder.create()
+                .setNamePrefix("export-cleaner-").setDaemon(true).build());
+        cleaner.scheduleWithFixedDelay(this::cleanQuietly, 0, CLEAN_INTERVAL, TimeUnit.HOURS);
+    }
+
+    @Override
+    public void destroy() {
+        cleaner.shutdownNow();
+    }
+
+    @Override
+    public ExportJobDto submit(String name, ExportTask task) {
+        ExportJobDto job = new ExportJobDto();
+        job.setId(IdUtil.simpleUUID());
+        job.setName(name);
+        job.setUsername(SecurityUtils.getCurrentUsername());
+        job.setStatus(ExportJobDto.WAITING);
+        job.setCreateTime(new Date());
+        save(job);
+        // 导出线程会修改 job，返回给调用方的是提交时的副本
+        ExportJobDto submitted = BeanUtil.copyProperties(job, ExportJobDto.class);
+        try {
+            // 导出线程中没有请求上下文，数据权限等依赖的登录信息需要传递过去
+            exportAsync.execute(new DelegatingSecurityContextRunnable(() -> run(job, task)));
+        } catch (RejectedExecutionException e) {
+            redisUtils.del(KEY + job.getId());
+            throw new BadRequestException("导出任务过多，请稍后再试");
+        }
+        return submitted;
+    }
+
+    @Override
+    public ExportJobDto findById(String id) {
+        ExportJobDto job = (ExportJobDto) redisUtils.get(KEY + id);
+        if (job == null || !job.getUsername().equals(SecurityUtils.getCurrentUsername())) {
+            throw new BadRequestException("导出任务不存在或已过期");
+        }
+        return job;
+    }
+
+    @Override
+    public File getFile(String id) {
+        ExportJobDto job = findById(id);
+        if (!ExportJobDto.SUCCESS.equals(job.getStatus())) {
+            throw new BadRequestException("导出任务尚未完成");
+        }
+        File file = new File(getExportPath() + job.getFileName());
+        if (!file.exists()) {
+            throw new BadRequestException("导出文件已被删除");
+        }
+        return file;
+    }
+
+    private void run(ExportJobDto job, ExportTask task) {
+        job.setStatus(ExportJobDto.RUNNING);
+        notify(job);
+        String fileName = job.getId() + ".xlsx";
+        File file = new File(getExportPath() + fileName);
+        try {
+            file.getParentFile().mkdirs();
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                task.write(out, rows -> {
+                    job.setRows(rows);
+                    if (rows % PROGRESS_STEP == 0) {
+                        notify(job);
+                    }
+                });
+            }
+            job.setFileName(fileName);
+            job.setStatus(ExportJobDto.SUCCESS);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            file.delete();
+            job.setStatus(ExportJobDto.FAILED);
+            job.setMessage(e.getMessage());
+        }
+        job.setFinishTime(new Date());
+        notify(job);
+    }
+
+    /**
+     * 保存任务状态并推送给提交任务的用户，前端订阅的 sid 为 export-任务ID，
+     * 任务ID 是随机 UUID，只有提交任务的用户知道，不能使用可猜测的用户名
+     */
+    private void notify(ExportJobDto job) {
+        save(job);
+        try {
+            WebSocketServer.sendInfo(new SocketMsg(JSONUtil.objToString(job), MsgType.INFO), "export-" + job.getId());
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    private void save(ExportJobDto job) {
+        redisUtils.set(KEY + job.getId(), job, EXPIRE);
+    }
+
+    /**
+     * 删除超过保留时间的导出文件，此时任务状态已过期，文件无法再下载
+     */
+    void clean() {
+        File[] files = new File(getExportPath()).listFiles();
+        if (files == null) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(EXPIRE);
+        for (File file : files) {
+            if (file.isFile() && file.lastModified() < deadline && !file.delete()) {
+                log.warn("Failed to delete expired export file {}", file);
+            }
+        }
+    }
+
+    private void cleanQuietly() {
+        try {
+            clean();
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    private String getExportPath() {
+        return properties.getPath().getPath() + "export" + File.separator;
+    }
+}
@@ -50,7 +50,7 @@ public class JobServiceImpl implements JobService {
 
     private final JobRepository jobRepository;
     private final JobMapper jobMapper;
-    private final RedisUtils redisUtils;
+    private final CacheTagManager cacheTagManager;
     private final UserRepository userRepository;
 
     @Override
@@ -102,7 +102,7 @@ public class JobServiceImpl implements JobService {
     public void delete(Set<Long> ids) {
         jobRepository.deleteAllByIdIn(ids);
         // 删除缓存
-        redisUtils.delByKeys(CacheKey.JOB_ID, ids);
+        cacheTagManager.evict(ids.stream().map(id -> CacheKey.JOB_ID + id).toArray(String[]::new));
     }
 
     @Override
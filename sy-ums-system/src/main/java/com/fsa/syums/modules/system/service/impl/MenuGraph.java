@@ -0,0 +1,177 @@
+/*
+ *  Copyright 2019-2020 Zheng Jie
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.fsa.syums.modules.system.service.impl;
+
+import com.fsa.syums.modules.system.service.dto.MenuDto;
+
+import java.util.*;
+
+/**
+ * 菜单图快照，由全部菜单一次线性构建，构建后不再修改，可在请求之间共享。
+ * 菜单变更时整体丢弃并重建，节点中的 {@link MenuDto} 仅作模板，对外返回前需要复制
+ *
+ * @author 全栈架构师
+ * @date 2023-12-09
+ */
+final class MenuGraph {
+
+    private static final Node[] EMPTY = new Node[0];
+
+    private final Map<Long, Node> nodes;
+
+    /**
+     * 全部节点，按排序号排列
+     */
+    private final Node[] sorted;
+
+    private final Node[] roots;
+
+    private MenuGraph(Map<Long, Node> nodes, Node[] sorted, Node[] roots) {
+        this.nodes = nodes;
+        this.sorted = sorted;
+        this.roots = roots;
+    }
+
+    /**
+     * 构建菜单图
+     *
+     * @param menus 全部菜单，按排序号排列，同级节点保持该顺序
+     * @return /
+     */
+    static MenuGraph build(List<MenuDto> menus) {
+        Map<Long, Node> nodes = new HashMap<>(menus.size() * 4 / 3 + 1);
+        Node[] sorted = new Node[menus.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = new Node(menus.get(i));
+            nodes.put(sorted[i].menu.getId(), sorted[i]);
+        }
+        Map<Node, List<Node>> children = new HashMap<>(nodes.size() * 4 / 3 + 1);
+        List<Node> roots = new ArrayList<>();
+        for (Node node : sorted) {
+            Long pid = node.menu.getPid();
+            Node parent = pid == null ? null : nodes.get(pid);
+            if (parent == null || parent == node) {
+                roots.add(node);
+            } else {
+                node.parent = parent;
+                children.computeIfAbsent(parent, k -> new ArrayList<>()).add(node);
+            }
+        }
+        children.forEach((parent, list) -> parent.children = list.toArray(EMPTY));
+        return new MenuGraph(Collections.unmodifiableMap(nodes), sorted, roots.toArray(EMPTY));
+    }
+
+    /**
+     * @param id 菜单ID
+     * @return 菜单，不存在返回 null
+     */
+    MenuDto get(Long id) {
+        Node node = nodes.get(id);
+        return node == null ? null : node.menu;
+    }
+
+    /**
+     * 获取下级菜单
+     *
+     * @param pid 上级菜单ID，为 null 时返回顶级菜单
+     * @return /
+     */
+    List<MenuDto> getChildren(Long pid) {
+        Node parent = pid == null ? null : nodes.get(pid);
+        if (pid != null && parent == null) {
+            return new ArrayList<>();
+        }
+        return toList(parent == null ? roots : parent.children);
+    }
+
+    /**
+     * 获取菜单自身所在层级及每一级上级所在层级的全部菜单，从本级开始直到顶级
+     *
+     * @param id 菜单ID
+     * @return /
+     */
+    List<MenuDto> getSuperior(Long id) {
+        List<MenuDto> list = new ArrayList<>();
+        Node node = nodes.get(id);
+        // 以节点数为上限，防止数据成环时死循环
+        for (int i = 0; node != null && i < nodes.size(); i++) {
+            list.addAll(toList(node.parent == null ? roots : node.parent.children));
+            node = node.parent;
+        }
+        return list;
+    }
+
+    /**
+     * 获取菜单及其全部下级菜单，先序排列
+     *
+     * @param id 菜单ID
+     * @return /
+     */
+    List<MenuDto> getSubtree(Long id) {
+        List<MenuDto> list = new ArrayList<>();
+        Node root = nodes.get(id);
+        if (root == null) {
+            return list;
+        }
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty() && list.size() < nodes.size()) {
+            Node node = stack.pop();
+            list.add(node.menu);
+            for (int i = node.children.length - 1; i >= 0; i--) {
+                stack.push(node.children[i]);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 按排序号筛选出指定的菜单
+     *
+     * @param ids 菜单ID
+     * @return /
+     */
+    List<MenuDto> select(Set<Long> ids) {
+        List<MenuDto> list = new ArrayList<>(ids.size());
+        for (Node node : sorted) {
+            if (ids.contains(node.menu.getId())) {
+                list.add(node.menu);
+            }
+        }
+        return list;
+    }
+
+    private static List<MenuDto> toList(Node[] nodes) {
+        List<MenuDto> list = new ArrayList<>(nodes.length);
+        for (Node node : nodes) {
+            list.add(node.menu);
+        }
+        return list;
+    }
+
+    private static final class Node {
+
+        private final MenuDto menu;
+
+        private Node parent;
+
+        private Node[] children = EMPTY;
+
+        private Node(MenuDto menu) {
+            this.menu = menu;
+        }
+    }
+}
@@ -17,8 +17,11 @@ package com.fsa.syums.modules.system.service.impl;
 
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.util.ObjectUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fsa.syums.exception.BadRequestException;
 import com.fsa.syums.exception.EntityExistException;
+import com.fsa.syums.modules.security.service.UserCacheManager;
 import com.fsa.syums.modules.system.repository.MenuRepository;
 import com.fsa.syums.modules.system.repository.UserRepository;
 import com.fsa.syums.modules.system.service.mapstruct.MenuMapper;
@@ -42,7 +45,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -58,7 +63,13 @@ public class MenuServiceImpl implements MenuService {
     private final UserRepository userRepository;
     private final MenuMapper menuMapper;
     private final RoleService roleService;
-    private final RedisUtils redisUtils;
+    private final UserCacheManager userCacheManager;
+    private final NearCacheManager nearCacheManager;
+    private final CacheTagManager cacheTagManager;
+    private final ObjectMapper objectMapper;
+
+    private static final String GRAPH_CACHE = "menu-graph";
+    private static final String GRAPH_KEY = "snapshot";
 
     private static final String HTTP_PRE = "http://";
     private static final String HTTPS_PRE = "https://";
@@ -102,11 +113,12 @@ public class MenuServiceImpl implements MenuService {
      * @return /
      */
     @Override
-    @Cacheable(key = "'user:' + #p0")
+    @Cacheable(key = "'user:' + #p0", sync = true)
     public List<MenuDto> findByUser(Long currentUserId) {
         List<RoleSmallDto> roles = roleService.findByUsersId(currentUserId);
         Set<Long> roleIds = roles.stream().map(RoleSmallDto::getId).collect(Collectors.toSet());
         LinkedHashSet<Menu> menus = menuRepository.findByRoleIdsAndTypeNot(roleIds, 2);
+        cacheTagManager.tag(CacheKey.MENU_USER + currentUserId, tags(currentUserId, roleIds));
         return menus.stream().map(menuMapper::toDto).collect(Collectors.toList());
     }
 
@@ -130,10 +142,13 @@ public class MenuServiceImpl implements MenuService {
             }
         }
         menuRepository.save(resources);
+        // 注册权限标识
+        PermissionRegistry.intern(resources.getPermission());
         // 计算子节点数目
         resources.setSubCount(0);
         // 更新父节点菜单数目
         updateSubCnt(resources.getPid());
+        nearCacheManager.evictAfterCommit(GRAPH_CACHE, GRAPH_KEY);
     }
 
     @Override
@@ -183,6 +198,8 @@ public class MenuServiceImpl implements MenuService {
         menu.setPermission(resources.getPermission());
         menu.setType(resources.getType());
         menuRepository.save(menu);
+        // 注册权限标识
+        PermissionRegistry.intern(menu.getPermission());
         // 计算父级菜单节点数目
         updateSubCnt(oldPid);
         updateSubCnt(newPid);
@@ -192,12 +209,10 @@ public class MenuServiceImpl implements MenuService {
 
     @Override
     public Set<Menu> getChildMenus(List<Menu> menuList, Set<Menu> menuSet) {
+        MenuGraph graph = getGraph();
         for (Menu menu : menuList) {
             menuSet.add(menu);
-            List<Menu> menus = menuRepository.findByPidOrderByMenuSort(menu.getId());
-            if(menus!=null && menus.size()!=0){
-                getChildMenus(menus, menuSet);
-            }
+            graph.getSubtree(menu.getId()).forEach(menuDto -> menuSet.add(menuMapper.toEntity(menuDto)));
         }
         return menuSet;
     }
@@ -216,41 +231,33 @@ public class MenuServiceImpl implements MenuService {
 
     @Override
     public List<MenuDto> getMenus(Long pid) {
-        List<Menu> menus;
-        if(pid != null && !pid.equals(0L)){
-            menus = menuRepository.findByPidOrderByMenuSort(pid);
-        } else {
-            menus = menuRepository.findByPidIsNullOrderByMenuSort();
-        }
-        return menuMapper.toDto(menus);
+        List<MenuDto> menus = getGraph().getChildren(pid != null && !pid.equals(0L) ? pid : null);
+        return menus.stream().map(menuMapper::copy).collect(Collectors.toList());
     }
 
     @Override
-    public List<MenuDto> getSuperior(MenuDto menuDto, List<Menu> menus) {
-        if(menuDto.getPid() == null){
-            menus.addAll(menuRepository.findByPidIsNullOrderByMenuSort());
-            return menuMapper.toDto(menus);
-        }
-        menus.addAll(menuRepository.findByPidOrderByMenuSort(menuDto.getPid()));
-        return getSuperior(findById(menuDto.getPid()), menus);
+    public List<MenuDto> getSuperior(MenuDto menuDto) {
+        return getGraph().getSuperior(menuDto.getId()).stream().map(menuMapper::copy).collect(Collectors.toList());
     }
 
     @Override
     public List<MenuDto> buildTree(List<MenuDto> menuDtos) {
+        Map<Long, MenuDto> menuMap = new HashMap<>(menuDtos.size() * 4 / 3 + 1);
+        menuDtos.forEach(menuDTO -> menuMap.put(menuDTO.getId(), menuDTO));
         List<MenuDto> trees = new ArrayList<>();
         Set<Long> ids = new HashSet<>();
         for (MenuDto menuDTO : menuDtos) {
             if (menuDTO.getPid() == null) {
                 trees.add(menuDTO);
+                continue;
             }
-            for (MenuDto it : menuDtos) {
-                if (menuDTO.getId().equals(it.getPid())) {
-                    if (menuDTO.getChildren() == null) {
-                        menuDTO.setChildren(new ArrayList<>());
-                    }
-                    menuDTO.getChildren().add(it);
-                    ids.add(it.getId());
+            MenuDto parent = menuMap.get(menuDTO.getPid());
+            if (parent != null) {
+                if (parent.getChildren() == null) {
+                    parent.setChildren(new ArrayList<>());
                 }
+                parent.getChildren().add(menuDTO);
+                ids.add(menuDTO.getId());
             }
         }
         if(trees.size() == 0){
@@ -312,6 +319,23 @@ public class MenuServiceImpl implements MenuService {
         return list;
     }
 
+    @Override
+    public byte[] buildMenus(Set<Long> roleIds) {
+        // 角色ID排序后作为指纹，菜单或角色菜单变更时整体清空
+        String fingerprint = roleIds.stream().sorted().map(String::valueOf).collect(Collectors.joining(","));
+        NearCache<byte[]> cache = nearCacheManager.getCache(NAV_CACHE, 1000, Duration.ofHours(1));
+        return cache.get(fingerprint, key -> {
+            Set<Long> menuIds = roleIds.isEmpty() ? Collections.emptySet() : menuRepository.findByRoleIdsAndTypeNot(roleIds, 2)
+                    .stream().map(Menu::getId).collect(Collectors.toSet());
+            List<MenuDto> menuDtos = getGraph().select(menuIds).stream().map(menuMapper::copy).collect(Collectors.toList());
+            try {
+                return objectMapper.writeValueAsBytes(buildMenus(buildTree(menuDtos)));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     @Override
     public Menu findOne(Long id) {
         Menu menu = menuRepository.findById(id).orElseGet(Menu::new);
@@ -336,6 +360,22 @@ public class MenuServiceImpl implements MenuService {
         FileUtil.downloadExcel(list, response);
     }
 
+    /**
+     * 获取菜单图快照，菜单变更后在事务提交时失效，下次访问时重建
+     * @return /
+     */
+    private MenuGraph getGraph() {
+        NearCache<MenuGraph> cache = nearCacheManager.getCache(GRAPH_CACHE, 1, Duration.ofHours(1));
+        return cache.get(GRAPH_KEY, key -> MenuGraph.build(menuMapper.toDto(menuRepository.findAll(Sort.by(Sort.Direction.ASC, "menuSort")))));
+    }
+
+    private List<String> tags(Long userId, Set<Long> roleIds) {
+        List<String> tags = new ArrayList<>(roleIds.size() + 1);
+        tags.add(CacheKey.TAG_USER + userId);
+        roleIds.forEach(roleId -> tags.add(CacheKey.TAG_ROLE + roleId));
+        return tags;
+    }
+
     private void updateSubCnt(Long menuId){
         if(menuId != null){
             int count = menuRepository.countByPid(menuId);
@@ -349,12 +389,17 @@ public class MenuServiceImpl implements MenuService {
      */
     public void delCaches(Long id){
         List<User> users = userRepository.findByMenuId(id);
-        redisUtils.del(CacheKey.MENU_ID + id);
-        redisUtils.delByKeys(CacheKey.MENU_USER, users.stream().map(User::getId).collect(Collectors.toSet()));
+        cacheTagManager.evict(CacheKey.MENU_ID + id);
+        userCacheManager.cleanUserCache(users.stream().map(User::getUsername).collect(Collectors.toList()));
         // 清除 Role 缓存
         List<Role> roles = roleService.findInMenuId(new ArrayList<Long>(){{
             add(id);
         }});
-        redisUtils.delByKeys(CacheKey.ROLE_ID, roles.stream().map(Role::getId).collect(Collectors.toSet()));
+        Set<Long> roleIds = roles.stream().map(Role::getId).collect(Collectors.toSet());
+        cacheTagManager.evict(roleIds.stream().map(roleId -> CacheKey.ROLE_ID + roleId).toArray(String[]::new));
+        // 持有这些角色的用户的菜单与权限缓存，权限标识可能变化，重新编译权限位图
+        cacheTagManager.invalidate(CacheKey.TAG_ROLE, roleIds);
+        nearCacheManager.evictAfterCommit(GRAPH_CACHE, GRAPH_KEY);
+        nearCacheManager.clearAfterCommit(NAV_CACHE);
     }
 }
@@ -17,10 +17,15 @@ package com.fsa.syums.modules.system.service.impl;
 
 import cn.hutool.core.date.BetweenFormatter.Level;
 import cn.hutool.core.date.DateUtil;
+import com.fsa.syums.config.CacheCompressionRegistry;
+import com.fsa.syums.config.LayeredCacheManager;
 import com.fsa.syums.utils.ElConstant;
 import com.fsa.syums.utils.FileUtil;
+import com.fsa.syums.utils.NearCacheManager;
 import com.fsa.syums.utils.StringUtils;
 import com.fsa.syums.modules.system.service.MonitorService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import oshi.SystemInfo;
 import oshi.hardware.*;
@@ -38,9 +43,13 @@ import java.util.*;
 * @date 2020-05-02
 */
 @Service
+@RequiredArgsConstructor
 public class MonitorServiceImpl implements MonitorService {
 
     private final DecimalFormat df = new DecimalFormat("0.00");
+    private final NearCacheManager nearCacheManager;
+    private final CacheCompressionRegistry cacheCompressionRegistry;
+    private final CacheManager cacheManager;
 
     @Override
     public Map<String,Object> getServers(){
@@ -66,6 +75,17 @@ public class MonitorServiceImpl implements MonitorService {
         return resultMap;
     }
 
+    @Override
+    public Map<String,Object> getCaches(){
+        Map<String, Object> resultMap = new LinkedHashMap<>(4);
+        if (cacheManager instanceof LayeredCacheManager) {
+            resultMap.put("redis", ((LayeredCacheManager) cacheManager).stats());
+        }
+        resultMap.put("local", nearCacheManager.stats());
+        resultMap.put("compression", cacheCompressionRegistry.stats());
+        return resultMap;
+    }
+
     /**
      * 获取磁盘信息
      * @return /
@@ -26,9 +26,9 @@ import com.fsa.syums.modules.system.service.mapstruct.RoleMapper;
 import com.fsa.syums.modules.system.service.mapstruct.RoleSmallMapper;
 import com.fsa.syums.utils.*;
 import lombok.RequiredArgsConstructor;
-import com.fsa.syums.modules.system.domain.Menu;
 import com.fsa.syums.modules.system.domain.Role;
 import com.fsa.syums.modules.system.domain.User;
+import com.fsa.syums.modules.system.service.MenuService;
 import com.fsa.syums.modules.system.service.RoleService;
 import com.fsa.syums.modules.system.service.dto.RoleDto;
 import com.fsa.syums.modules.system.service.dto.RoleQueryCriteria;
@@ -59,9 +59,10 @@ public class RoleServiceImpl implements RoleService {
     private final RoleRepository roleRepository;
     private final RoleMapper roleMapper;
     private final RoleSmallMapper roleSmallMapper;
-    private final RedisUtils redisUtils;
     private final UserRepository userRepository;
     private final UserCacheManager userCacheManager;
+    private final NearCacheManager nearCacheManager;
+    private final CacheTagManager cacheTagManager;
 
     @Override
     public List<RoleDto> queryAll() {
@@ -127,6 +128,8 @@ public class RoleServiceImpl implements RoleService {
         role.setMenus(resources.getMenus());
         delCaches(resources.getId(), users);
         roleRepository.save(role);
+        // 角色菜单变化后，持有该角色的指纹对应的前端菜单均已失效
+        nearCacheManager.clearAfterCommit(MenuService.NAV_CACHE);
     }
 
     @Override
@@ -164,8 +167,15 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
-    @Cacheable(key = "'auth:' + #p0.id")
+    @Cacheable(key = "'auth:' + #p0.id", sync = true)
     public List<AuthorityDto> mapToGrantedAuthorities(UserDto user) {
+        // 登记依赖：用户及其角色，角色或角色菜单变化时该缓存失效
+        List<String> tags = new ArrayList<>();
+        tags.add(CacheKey.TAG_USER + user.getId());
+        if (user.getRoles() != null) {
+            user.getRoles().forEach(role -> tags.add(CacheKey.TAG_ROLE + role.getId()));
+        }
+        cacheTagManager.tag(CacheKey.ROLE_AUTH + user.getId(), tags);
         Set<String> permissions = new HashSet<>();
         // 如果是管理员直接返回
         if (user.getIsAdmin()) {
@@ -173,9 +183,7 @@ public class RoleServiceImpl implements RoleService {
             return permissions.stream().map(AuthorityDto::new)
                     .collect(Collectors.toList());
         }
-        Set<Role> roles = roleRepository.findByUserId(user.getId());
-        permissions = roles.stream().flatMap(role -> role.getMenus().stream())
-                .map(Menu::getPermission)
+        permissions = roleRepository.findPermissionsByUserId(user.getId()).stream()
                 .filter(StringUtils::isNotBlank).collect(Collectors.toSet());
         return permissions.stream().map(AuthorityDto::new)
                 .collect(Collectors.toList());
@@ -214,12 +222,10 @@ public class RoleServiceImpl implements RoleService {
     public void delCaches(Long id, List<User> users) {
         users = CollectionUtil.isEmpty(users) ? userRepository.findByRoleId(id) : users;
         if (CollectionUtil.isNotEmpty(users)) {
-            users.forEach(item -> userCacheManager.cleanUserCache(item.getUsername()));
-            Set<Long> userIds = users.stream().map(User::getId).collect(Collectors.toSet());
-            redisUtils.delByKeys(CacheKey.DATA_USER, userIds);
-            redisUtils.delByKeys(CacheKey.MENU_USER, userIds);
-            redisUtils.delByKeys(CacheKey.ROLE_AUTH, userIds);
+            userCacheManager.cleanUserCache(users.stream().map(User::getUsername).collect(Collectors.toList()));
         }
-        redisUtils.del(CacheKey.ROLE_ID + id);
+        // 持有该角色的用户的数据权限、菜单与权限缓存
+        cacheTagManager.invalidate(CacheKey.TAG_ROLE, Collections.singleton(id));
+        cacheTagManager.evict(CacheKey.ROLE_ID + id);
     }
 }
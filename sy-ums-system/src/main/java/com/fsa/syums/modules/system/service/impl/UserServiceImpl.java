@@ -39,12 +39,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.servlet.http.HttpServletResponse;
 
 import javax.validation.constraints.NotBlank;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -59,10 +63,12 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final FileProperties properties;
-    private final RedisUtils redisUtils;
+    private final CacheTagManager cacheTagManager;
     private final UserCacheManager userCacheManager;
     private final OnlineUserService onlineUserService;
     private final UserLoginMapper userLoginMapper;
+    @PersistenceContext
+    private EntityManager em;
 
     @Override
     public PageResult<UserDto> queryAll(UserQueryCriteria criteria, Pageable pageable) {
@@ -118,14 +124,9 @@ public class UserServiceImpl implements UserService {
             throw new EntityExistException(User.class, "phone", resources.getPhone());
         }
         // 如果用户的角色改变
-        if (!resources.getRoles().equals(user.getRoles())) {
-            redisUtils.del(CacheKey.DATA_USER + resources.getId());
-            redisUtils.del(CacheKey.MENU_USER + resources.getId());
-            redisUtils.del(CacheKey.ROLE_AUTH + resources.getId());
-        }
         // 修改部门会影响 数据权限
-        if (!Objects.equals(resources.getDept(), user.getDept())) {
-            redisUtils.del(CacheKey.DATA_USER + resources.getId());
+        if (!resources.getRoles().equals(user.getRoles()) || !Objects.equals(resources.getDept(), user.getDept())) {
+            cacheTagManager.invalidate(CacheKey.TAG_USER, Collections.singleton(resources.getId()));
         }
         // 如果用户被禁用，则清除用户登录信息
         if (!resources.getEnabled()) {
@@ -197,12 +198,19 @@ public class UserServiceImpl implements UserService {
     public void updatePass(String username, String pass) {
         userRepository.updatePass(username, pass, new Date());
         flushCache(username);
+        // 修改密码后强退该用户的全部会话
+        onlineUserService.logoutByUsername(username);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void resetPwd(Set<Long> ids, String pwd) {
         userRepository.resetPwd(ids, pwd);
+        // 重置密码后清理缓存并强退相关用户
+        for (User user : userRepository.findAllById(ids)) {
+            flushCache(user.getUsername());
+            onlineUserService.logoutByUsername(user.getUsername());
+        }
     }
 
     @Override
@@ -241,22 +249,41 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public void download(List<UserDto> queryAll, HttpServletResponse response) throws IOException {
-        List<Map<String, Object>> list = new ArrayList<>();
-        for (UserDto userDTO : queryAll) {
-            List<String> roles = userDTO.getRoles().stream().map(RoleSmallDto::getName).collect(Collectors.toList());
-            Map<String, Object> map = new LinkedHashMap<>();
-            map.put("用户名", userDTO.getUsername());
-            map.put("角色", roles);
-            map.put("部门", userDTO.getDept().getName());
-            map.put("岗位", userDTO.getJobs().stream().map(JobSmallDto::getName).collect(Collectors.toList()));
-            map.put("邮箱", userDTO.getEmail());
-            map.put("状态", userDTO.getEnabled() ? "启用" : "禁用");
-            map.put("手机号码", userDTO.getPhone());
-            map.put("修改密码的时间", userDTO.getPwdResetTime());
-            map.put("创建日期", userDTO.getCreateTime());
-            list.add(map);
-        }
-        FileUtil.downloadExcel(list, response);
+        FileUtil.downloadExcel(queryAll.iterator(), this::toExcelRow, response);
+    }
+
+    @Override
+    public void download(UserQueryCriteria criteria, HttpServletResponse response) throws IOException {
+        FileUtil.downloadExcel(iterate(criteria), user -> toExcelRow(userMapper.toDto(user)), response);
+    }
+
+    @Override
+    public void writeExcel(UserQueryCriteria criteria, OutputStream out, LongConsumer progress) throws IOException {
+        long[] rows = new long[1];
+        ExcelStreamWriter.write(iterate(criteria), user -> {
+            progress.accept(++rows[0]);
+            return toExcelRow(userMapper.toDto(user));
+        }, out);
+    }
+
+    private Iterator<User> iterate(UserQueryCriteria criteria) {
+        return KeysetQueryHelp.iterate(em, User.class, criteria, KeysetQueryHelp.EXPORT_WINDOW,
+                User::getCreateTime, User::getId);
+    }
+
+    private Map<String, Object> toExcelRow(UserDto userDTO) {
+        List<String> roles = userDTO.getRoles().stream().map(RoleSmallDto::getName).collect(Collectors.toList());
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("用户名", userDTO.getUsername());
+        map.put("角色", roles);
+        map.put("部门", userDTO.getDept().getName());
+        map.put("岗位", userDTO.getJobs().stream().map(JobSmallDto::getName).collect(Collectors.toList()));
+        map.put("邮箱", userDTO.getEmail());
+        map.put("状态", userDTO.getEnabled() ? "启用" : "禁用");
+        map.put("手机号码", userDTO.getPhone());
+        map.put("修改密码的时间", userDTO.getPwdResetTime());
+        map.put("创建日期", userDTO.getCreateTime());
+        return map;
     }
 
     /**
@@ -265,7 +292,7 @@ public class UserServiceImpl implements UserService {
      * @param id /
      */
     public void delCaches(Long id, String username) {
-        redisUtils.del(CacheKey.USER_ID + id);
+        cacheTagManager.evict(CacheKey.USER_ID + id);
         flushCache(username);
     }
 
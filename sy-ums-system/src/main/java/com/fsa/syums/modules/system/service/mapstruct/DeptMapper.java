@@ -19,6 +19,7 @@ import com.fsa.syums.base.BaseMapper;
 import com.fsa.syums.modules.system.domain.Dept;
 import com.fsa.syums.modules.system.service.dto.DeptDto;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
 
 /**
@@ -27,4 +28,12 @@ import org.mapstruct.ReportingPolicy;
 */
 @Mapper(componentModel = "spring",unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface DeptMapper extends BaseMapper<DeptDto, Dept> {
+
+    /**
+     * 复制部门，不复制下级
+     * @param deptDto /
+     * @return /
+     */
+    @Mapping(target = "children", ignore = true)
+    DeptDto copy(DeptDto deptDto);
 }
\ No newline at end of file
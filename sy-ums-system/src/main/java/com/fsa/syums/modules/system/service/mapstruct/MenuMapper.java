@@ -19,6 +19,7 @@ import com.fsa.syums.base.BaseMapper;
 import com.fsa.syums.modules.system.domain.Menu;
 import com.fsa.syums.modules.system.service.dto.MenuDto;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
 
 /**
@@ -27,4 +28,12 @@ import org.mapstruct.ReportingPolicy;
  */
 @Mapper(componentModel = "spring",unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface MenuMapper extends BaseMapper<MenuDto, Menu> {
+
+    /**
+     * 复制菜单，不复制下级
+     * @param menuDto /
+     * @return /
+     */
+    @Mapping(target = "children", ignore = true)
+    MenuDto copy(MenuDto menuDto);
 }
@@ -0,0 +1,140 @@
+package com.fsa.syums.config;
+
+import com.fsa.syums.modules.security.service.dto.AuthorityDto;
+import com.fsa.syums.modules.security.service.dto.JwtUserDto;
+import com.fsa.syums.modules.security.service.dto.OnlineUserDto;
+import com.fsa.syums.modules.system.config.CompactTypeRegistrar;
+import com.fsa.syums.modules.system.service.dto.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 紧凑序列化与 JSON 序列化对比：实际缓存的 JwtUserDto、OnlineUserDto 与菜单列表，
+ * 启动时输出两种格式的字节数，基准测试比较序列化与反序列化耗时。运行方式见 sy-ums-system/pom.xml
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactRedisSerializerBenchmark {
+
+    @Param({"jwtUser", "onlineUser", "menus"})
+    private String type;
+
+    private MyJackson2JsonRedisSerializer json;
+
+    private CompactRedisSerializer compact;
+
+    private Object value;
+
+    private byte[] jsonBytes;
+
+    private byte[] compactBytes;
+
+    @Setup
+    public void setUp() {
+        json = new MyJackson2JsonRedisSerializer();
+        compact = new CompactRedisSerializer(json);
+        new CompactTypeRegistrar().register(compact);
+        value = switch (type) {
+            case "jwtUser" -> jwtUser();
+            case "onlineUser" -> onlineUser();
+            default -> menus();
+        };
+        jsonBytes = json.serialize(value);
+        compactBytes = compact.serialize(value);
+        System.out.printf("%n%s: json %d bytes, compact %d bytes%n", type, jsonBytes.length, compactBytes.length);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return json.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] compactSerialize() {
+        return compact.serialize(value);
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public Object compactDeserialize() {
+        return compact.deserialize(compactBytes);
+    }
+
+    static JwtUserDto jwtUser() {
+        UserLoginDto user = new UserLoginDto();
+        user.setId(1L);
+        user.setUsername("admin");
+        user.setNickName("管理员");
+        user.setEmail("admin@example.com");
+        user.setPhone("18888888888");
+        user.setGender("男");
+        user.setEnabled(true);
+        user.setDeptId(2L);
+        DeptSmallDto dept = new DeptSmallDto();
+        dept.setId(2L);
+        dept.setName("研发部");
+        user.setDept(dept);
+        Set<RoleSmallDto> roles = new HashSet<>();
+        for (long i = 1; i <= 3; i++) {
+            RoleSmallDto role = new RoleSmallDto();
+            role.setId(i);
+            role.setName("角色" + i);
+            role.setLevel((int) i);
+            role.setDataScope("本级");
+            roles.add(role);
+        }
+        user.setRoles(roles);
+        Set<JobSmallDto> jobs = new HashSet<>();
+        JobSmallDto job = new JobSmallDto();
+        job.setId(8L);
+        job.setName("人事专员");
+        jobs.add(job);
+        user.setJobs(jobs);
+        user.setPwdResetTime(new Date(1700000000000L));
+        List<AuthorityDto> authorities = new ArrayList<>();
+        for (String resource : Arrays.asList("user", "role", "menu", "dept", "job", "dict", "log", "storage")) {
+            for (String action : Arrays.asList("list", "add", "edit", "del")) {
+                authorities.add(new AuthorityDto(resource + ":" + action));
+            }
+        }
+        return new JwtUserDto(user, new ArrayList<>(Arrays.asList(2L, 5L, 7L, 8L)), authorities);
+    }
+
+    static OnlineUserDto onlineUser() {
+        return new OnlineUserDto("admin", "管理员", "研发部", "Chrome 120.0.0.0", "192.168.1.10", "内网IP",
+                "MTIzNDU2Nzg5MGFiY2RlZjEyMzQ1Njc4OTBhYmNkZWY=", new Date(1700000000000L));
+    }
+
+    static List<MenuDto> menus() {
+        List<MenuDto> menus = new ArrayList<>();
+        for (long i = 1; i <= 60; i++) {
+            MenuDto menu = new MenuDto();
+            menu.setId(i);
+            menu.setPid(i <= 6 ? null : (i % 6) + 1);
+            menu.setType(i <= 6 ? 0 : 1);
+            menu.setTitle("菜单" + i);
+            menu.setComponentName("Menu" + i);
+            menu.setComponent("system/menu" + i + "/index");
+            menu.setPath("menu" + i);
+            menu.setPermission("menu" + i + ":list");
+            menu.setIcon("menu");
+            menu.setMenuSort((int) i);
+            menu.setSubCount(i <= 6 ? 9 : 0);
+            menu.setIFrame(false);
+            menu.setCache(false);
+            menu.setHidden(false);
+            menus.add(menu);
+        }
+        return menus;
+    }
+}
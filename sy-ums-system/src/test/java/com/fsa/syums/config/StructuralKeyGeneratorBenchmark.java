@@ -0,0 +1,99 @@
+package com.fsa.syums.config;
+
+import com.fsa.syums.modules.system.service.dto.UserQueryCriteria;
+import com.fsa.syums.utils.JSONUtil;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 结构化 key 生成与替换前的实现（参数放入 HashMap 转 JSON 后取 SHA-256）对比，
+ * 参数分别为单个 ID、ID 集合与查询条件对象。运行方式见 sy-ums-system/pom.xml
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StructuralKeyGeneratorBenchmark {
+
+    @Param({"id", "ids", "criteria"})
+    private String type;
+
+    private final KeyGenerator structural = new StructuralKeyGenerator();
+
+    private final KeyGenerator legacy = StructuralKeyGeneratorBenchmark::legacy;
+
+    private final Sample target = new Sample();
+
+    private Method method;
+
+    private Object param;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        switch (type) {
+            case "id" -> {
+                method = Sample.class.getMethod("findById", Long.class);
+                param = 7L;
+            }
+            case "ids" -> {
+                method = Sample.class.getMethod("findByIds", Set.class);
+                param = new HashSet<>(Arrays.asList(2L, 5L, 7L, 8L, 9L));
+            }
+            default -> {
+                UserQueryCriteria criteria = new UserQueryCriteria();
+                criteria.setBlurry("admin");
+                criteria.setEnabled(true);
+                criteria.setDeptIds(new HashSet<>(Arrays.asList(2L, 5L)));
+                method = Sample.class.getMethod("queryAll", UserQueryCriteria.class);
+                param = criteria;
+            }
+        }
+    }
+
+    @Benchmark
+    public Object structural() {
+        return structural.generate(target, method, param);
+    }
+
+    @Benchmark
+    public Object legacy() {
+        return legacy.generate(target, method, param);
+    }
+
+    /**
+     * 替换前的实现
+     */
+    private static Object legacy(Object target, Method method, Object... params) {
+        Map<String, Object> container = new HashMap<>(8);
+        Class<?> targetClassClass = target.getClass();
+        container.put("class", targetClassClass.toGenericString());
+        container.put("methodName", method.getName());
+        container.put("package", targetClassClass.getPackage());
+        for (int i = 0; i < params.length; i++) {
+            container.put(String.valueOf(i), params[i]);
+        }
+        return DigestUtils.sha256Hex(JSONUtil.objToString(container));
+    }
+
+    public static class Sample {
+
+        public Object findById(Long id) {
+            return null;
+        }
+
+        public Object findByIds(Set<Long> ids) {
+            return null;
+        }
+
+        public Object queryAll(UserQueryCriteria criteria) {
+            return null;
+        }
+    }
+}
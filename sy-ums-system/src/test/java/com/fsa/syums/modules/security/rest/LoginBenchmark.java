@@ -0,0 +1,98 @@
+package com.fsa.syums.modules.security.rest;
+
+import com.fsa.syums.utils.RsaUtils;
+import org.apache.commons.codec.binary.Base64;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import javax.crypto.Cipher;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录接口的开销：RSA 解密密码、校验验证码、BCrypt 认证。
+ * legacy 为启动时解析私钥之前的做法，每次登录都解析 PKCS8 私钥并创建 Cipher；current 使用解析好的私钥。
+ * 验证码与用户信息在内存中，不计入 Redis 与数据库往返。整次登录以 BCrypt 为主，decrypt* 单独比较解密部分。
+ * 运行方式见 sy-ums-system/pom.xml
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String USERNAME = "admin";
+
+    private static final String PASSWORD = "123456";
+
+    private static final String CODE = "a1b2";
+
+    private String privateKeyText;
+
+    private PrivateKey privateKey;
+
+    private String encrypted;
+
+    private DaoAuthenticationProvider provider;
+
+    @Setup
+    public void setUp() throws Exception {
+        RsaUtils.RsaKeyPair keyPair = RsaUtils.generateKeyPair();
+        privateKeyText = keyPair.getPrivateKey();
+        privateKey = RsaUtils.getPrivateKey(privateKeyText);
+        encrypted = RsaUtils.encryptByPublicKey(keyPair.getPublicKey(), PASSWORD);
+        // 与 SpringSecurityConfig 相同的默认强度
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsService(new InMemoryUserDetailsManager(
+                User.withUsername(USERNAME).password(passwordEncoder.encode(PASSWORD)).authorities("admin").build()));
+    }
+
+    @Benchmark
+    public Object legacy() throws Exception {
+        return login(legacyDecrypt(privateKeyText, encrypted));
+    }
+
+    @Benchmark
+    public Object current() throws Exception {
+        return login(RsaUtils.decryptByPrivateKey(privateKey, encrypted));
+    }
+
+    @Benchmark
+    public Object decryptLegacy() throws Exception {
+        return legacyDecrypt(privateKeyText, encrypted);
+    }
+
+    @Benchmark
+    public Object decrypt() throws Exception {
+        return RsaUtils.decryptByPrivateKey(privateKey, encrypted);
+    }
+
+    private Authentication login(String password) {
+        if (!"A1B2".equalsIgnoreCase(CODE)) {
+            throw new IllegalStateException("验证码错误");
+        }
+        return provider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, password));
+    }
+
+    /**
+     * 解析私钥之前的 RsaUtils#decryptByPrivateKey
+     */
+    private static String legacyDecrypt(String privateKeyText, String text) throws Exception {
+        PKCS8EncodedKeySpec pkcs8EncodedKeySpec = new PKCS8EncodedKeySpec(Base64.decodeBase64(privateKeyText));
+        PrivateKey privateKey = KeyFactory.getInstance("RSA").generatePrivate(pkcs8EncodedKeySpec);
+        Cipher cipher = Cipher.getInstance("RSA");
+        cipher.init(Cipher.DECRYPT_MODE, privateKey);
+        return new String(cipher.doFinal(Base64.decodeBase64(text)));
+    }
+}
@@ -0,0 +1,74 @@
+package com.fsa.syums.modules.security.security;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.fsa.syums.modules.security.config.bean.SecurityProperties;
+import com.fsa.syums.modules.security.service.SessionRenewalManager;
+import com.fsa.syums.utils.NearCacheManager;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个请求的鉴权开销：TokenFilter 依次取登录 key、鉴权信息并记录续期。
+ * uncached 为缓存验签结果之前的做法，每次调用都重新验签 HS512 并计算 MD5，未计入当时续期检查的 Redis 往返；
+ * cached 使用 {@link TokenProvider}。
+ * 运行方式见 sy-ums-system/pom.xml
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenProviderBenchmark {
+
+    private SecurityProperties properties;
+
+    private TokenProvider tokenProvider;
+
+    private JwtParser jwtParser;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        byte[] secret = new byte[64];
+        new SecureRandom().nextBytes(secret);
+        properties = new SecurityProperties();
+        properties.setBase64Secret(Base64.getEncoder().encodeToString(secret));
+        properties.setOnlineKey("online-token-");
+        // 续期只在内存中记录，不访问 Redis；本地缓存不需要失效通知
+        tokenProvider = new TokenProvider(properties, new SessionRenewalManager(properties, null), new NearCacheManager(null, null));
+        tokenProvider.afterPropertiesSet();
+        token = tokenProvider.createToken(new UsernamePasswordAuthenticationToken("admin", null));
+        jwtParser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(properties.getBase64Secret()))).build();
+    }
+
+    @Benchmark
+    public Object cached() {
+        String loginKey = tokenProvider.loginKey(token);
+        Authentication authentication = tokenProvider.getAuthentication(token);
+        tokenProvider.checkRenewal(token);
+        return loginKey.length() + authentication.getName().length();
+    }
+
+    @Benchmark
+    public Object uncached() {
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        String loginKey = properties.getOnlineKey() + claims.getSubject() + "-" + DigestUtil.md5Hex(token);
+        User principal = new User(jwtParser.parseClaimsJws(token).getBody().getSubject(), "******", new ArrayList<>());
+        Authentication authentication = new UsernamePasswordAuthenticationToken(principal, token, new ArrayList<>());
+        return loginKey.length() + authentication.getName().length();
+    }
+}
@@ -0,0 +1,165 @@
+package com.fsa.syums.modules.system.repository;
+
+import com.fsa.syums.modules.system.domain.*;
+import com.fsa.syums.modules.system.service.dto.UserQueryCriteria;
+import com.fsa.syums.utils.QueryHelp;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 用户分页查询的语句条数：分页、计数、一批角色、一批岗位，部门随分页查询连接，角色菜单按批加载
+ */
+public class UserRepositoryTest {
+
+    private static final int USERS = 30;
+
+    private static final int PAGE_SIZE = 20;
+
+    private static LocalContainerEntityManagerFactoryBean factoryBean;
+
+    private static Statistics statistics;
+
+    private EntityManager entityManager;
+
+    private UserRepository userRepository;
+
+    @BeforeAll
+    public static void setUpFactory() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:sy-ums;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE", "sa", "");
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPersistenceProvider(new HibernatePersistenceProvider());
+        factoryBean.setPackagesToScan("com.fsa.syums.modules.system.domain");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.physical_naming_strategy", "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy");
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        properties.put("hibernate.generate_statistics", "true");
+        factoryBean.setJpaPropertyMap(properties);
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        populate(entityManagerFactory);
+    }
+
+    @AfterAll
+    public static void tearDownFactory() {
+        factoryBean.destroy();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        entityManager = factoryBean.getObject().createEntityManager();
+        userRepository = new JpaRepositoryFactory(entityManager).getRepository(UserRepository.class);
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        entityManager.close();
+    }
+
+    @Test
+    public void testPageQueryStatementCount() {
+        UserQueryCriteria criteria = new UserQueryCriteria();
+        criteria.setEnabled(true);
+        Page<User> page = userRepository.findAll((root, query, cb) -> QueryHelp.getPredicate(root, criteria, cb),
+                PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+        assertEquals(USERS, page.getTotalElements());
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        for (User user : page) {
+            assertEquals(2, user.getRoles().size());
+            assertEquals(1, user.getJobs().size());
+            assertEquals("研发部", user.getDept().getName());
+        }
+        // 分页、计数、一批角色、一批岗位
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testListQueryStatementCount() {
+        List<User> users = userRepository.findAll((root, query, cb) -> QueryHelp.getPredicate(root, new UserQueryCriteria(), cb));
+        assertEquals(USERS, users.size());
+        users.forEach(user -> user.getDept().getName());
+        // 查询、一批角色、一批岗位
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testRoleMenusBatch() {
+        Page<User> page = userRepository.findAll((root, query, cb) -> QueryHelp.getPredicate(root, new UserQueryCriteria(), cb),
+                PageRequest.of(0, PAGE_SIZE));
+        statistics.clear();
+        Set<String> permissions = new HashSet<>();
+        for (User user : page) {
+            for (Role role : user.getRoles()) {
+                role.getMenus().forEach(menu -> permissions.add(menu.getPermission()));
+            }
+        }
+        assertEquals(3, permissions.size());
+        // 所有角色的菜单一次加载
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private static void populate(EntityManagerFactory entityManagerFactory) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        Dept dept = new Dept();
+        dept.setName("研发部");
+        dept.setEnabled(true);
+        dept.setDeptSort(1);
+        entityManager.persist(dept);
+        Job job = new Job();
+        job.setName("开发");
+        job.setEnabled(true);
+        job.setJobSort(1L);
+        entityManager.persist(job);
+        List<Role> roles = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Menu menu = new Menu();
+            menu.setTitle("菜单" + i);
+            menu.setType(2);
+            menu.setPermission("menu" + i + ":list");
+            menu.setCache(false);
+            menu.setHidden(false);
+            menu.setIFrame(false);
+            entityManager.persist(menu);
+            Role role = new Role();
+            role.setName("角色" + i);
+            role.setMenus(new HashSet<>(Collections.singletonList(menu)));
+            entityManager.persist(role);
+            roles.add(role);
+        }
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setNickName("用户" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPhone("1380000" + String.format("%04d", i));
+            user.setEnabled(true);
+            user.setDept(dept);
+            user.setJobs(new HashSet<>(Collections.singletonList(job)));
+            user.setRoles(new HashSet<>(Arrays.asList(roles.get(i % 3), roles.get((i + 1) % 3))));
+            entityManager.persist(user);
+        }
+        entityManager.getTransaction().commit();
+        entityManager.close();
+    }
+}
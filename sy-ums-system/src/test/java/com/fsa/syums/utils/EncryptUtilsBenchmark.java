@@ -0,0 +1,98 @@
+package com.fsa.syums.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.DESKeySpec;
+import javax.crypto.spec.IvParameterSpec;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据库密码等字段的加解密开销。
+ * legacy 为密钥只生成一次之前的做法，每次调用都创建 Cipher、派生 DES 密钥并逐字节转换十六进制；
+ * current 使用 {@link EncryptUtils}，bytes 为不经过十六进制转换的重载。
+ * 运行方式见 sy-ums-system/pom.xml
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncryptUtilsBenchmark {
+
+    private static final String STR_PARAM = "Passw0rd";
+
+    private static final IvParameterSpec IV = new IvParameterSpec(STR_PARAM.getBytes(StandardCharsets.UTF_8));
+
+    @Param({"123456", "jdbc-password-with-some-length"})
+    private String source;
+
+    private String encrypted;
+
+    private byte[] sourceBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        encrypted = EncryptUtils.desEncrypt(source);
+        if (!encrypted.equals(legacyEncrypt(source)) || !source.equals(legacyDecrypt(encrypted))) {
+            throw new IllegalStateException("新旧实现结果不一致");
+        }
+        sourceBytes = source.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object legacy() throws Exception {
+        return legacyDecrypt(legacyEncrypt(source));
+    }
+
+    @Benchmark
+    public Object current() throws Exception {
+        return EncryptUtils.desDecrypt(EncryptUtils.desEncrypt(source));
+    }
+
+    @Benchmark
+    public Object bytes() throws Exception {
+        return EncryptUtils.desDecrypt(EncryptUtils.desEncrypt(sourceBytes));
+    }
+
+    /**
+     * 密钥只生成一次之前的 EncryptUtils#desEncrypt
+     */
+    private static String legacyEncrypt(String source) throws Exception {
+        Cipher cipher = Cipher.getInstance("DES/CBC/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, legacyKey(), IV);
+        byte[] result = cipher.doFinal(source.getBytes(StandardCharsets.UTF_8));
+        StringBuilder out = new StringBuilder(result.length * 2);
+        for (byte b : result) {
+            String stmp = Integer.toHexString(b & 0xFF);
+            if (stmp.length() == 1) {
+                out.append("0");
+            }
+            out.append(stmp);
+        }
+        return out.toString().toUpperCase();
+    }
+
+    /**
+     * 密钥只生成一次之前的 EncryptUtils#desDecrypt
+     */
+    private static String legacyDecrypt(String source) throws Exception {
+        byte[] b = source.getBytes(StandardCharsets.UTF_8);
+        byte[] src = new byte[b.length / 2];
+        for (int n = 0; n < b.length; n += 2) {
+            src[n / 2] = (byte) Integer.parseInt(new String(b, n, 2), 16);
+        }
+        Cipher cipher = Cipher.getInstance("DES/CBC/PKCS5Padding");
+        cipher.init(Cipher.DECRYPT_MODE, legacyKey(), IV);
+        return new String(cipher.doFinal(src));
+    }
+
+    private static SecretKey legacyKey() throws Exception {
+        DESKeySpec desKeySpec = new DESKeySpec(STR_PARAM.getBytes(StandardCharsets.UTF_8));
+        return SecretKeyFactory.getInstance("DES").generateSecret(desKeySpec);
+    }
+}
@@ -0,0 +1,206 @@
+package com.fsa.syums.utils;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.ObjectUtil;
+import com.fsa.syums.annotation.DataPermission;
+import com.fsa.syums.annotation.Query;
+import com.fsa.syums.domain.SysLog;
+import com.fsa.syums.modules.system.domain.Dept;
+import com.fsa.syums.modules.system.domain.User;
+import com.fsa.syums.modules.system.service.dto.DeptQueryCriteria;
+import com.fsa.syums.modules.system.service.dto.UserQueryCriteria;
+import com.fsa.syums.service.dto.SysLogQueryCriteria;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.*;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Field;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分页查询生成条件的开销，使用 Hibernate 的 CriteriaBuilder，不连接数据库。
+ * legacy 为缓存查询计划之前的做法，每次查询都反射读取字段、注解并拆分 joinName、blurry；current 使用 {@link QueryHelp}。
+ * dept 带数据权限，当前用户快照放在 SecurityContext 中。
+ * 运行方式见 sy-ums-system/pom.xml
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryHelpBenchmark {
+
+    @Param({"user", "log", "dept"})
+    private String criteria;
+
+    private LocalContainerEntityManagerFactoryBean factoryBean;
+
+    private CriteriaBuilder cb;
+
+    private Class<?> entityClass;
+
+    private Object query;
+
+    @Setup
+    public void setUp() {
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setPersistenceProvider(new HibernatePersistenceProvider());
+        factoryBean.setPackagesToScan("com.fsa.syums.modules.system.domain", "com.fsa.syums.domain");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
+        // 只构建元模型，启动时不读取数据库元数据
+        properties.put("hibernate.boot.allow_jdbc_metadata_access", "false");
+        factoryBean.setJpaPropertyMap(properties);
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        cb = entityManagerFactory.getCriteriaBuilder();
+
+        List<Timestamp> createTime = Arrays.asList(Timestamp.valueOf("2023-01-01 00:00:00"), Timestamp.valueOf("2023-12-31 23:59:59"));
+        switch (criteria) {
+            case "user":
+                UserQueryCriteria user = new UserQueryCriteria();
+                user.setDeptIds(new HashSet<>(Arrays.asList(2L, 5L, 7L)));
+                user.setBlurry("admin");
+                user.setEnabled(true);
+                user.setCreateTime(createTime);
+                entityClass = User.class;
+                query = user;
+                break;
+            case "log":
+                SysLogQueryCriteria log = new SysLogQueryCriteria();
+                log.setBlurry("login");
+                log.setLogType("INFO");
+                log.setCreateTime(createTime);
+                entityClass = SysLog.class;
+                query = log;
+                break;
+            default:
+                DeptQueryCriteria dept = new DeptQueryCriteria();
+                dept.setName("研发");
+                dept.setEnabled(true);
+                dept.setPid(1L);
+                dept.setCreateTime(createTime);
+                entityClass = Dept.class;
+                query = dept;
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("admin", null);
+                authentication.setDetails(new LoginPrincipal(1L, 2L, "admin", Arrays.asList(2L, 5L, 7L), Collections.singletonList("admin")));
+                // JMH 在独立线程中执行基准方法
+                SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                break;
+        }
+        if (current() == null || legacy() == null) {
+            throw new IllegalStateException("生成条件失败");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        factoryBean.destroy();
+    }
+
+    @Benchmark
+    public Object legacy() {
+        return LegacyQueryHelp.getPredicate(cb.createQuery(entityClass).from(entityClass), query, cb);
+    }
+
+    @Benchmark
+    public Object current() {
+        return QueryHelp.getPredicate(cb.createQuery(entityClass).from(entityClass), query, cb);
+    }
+
+    /**
+     * 缓存查询计划之前的 QueryHelp，去掉了本基准不涉及的查询方式
+     */
+    @SuppressWarnings({"unchecked", "all"})
+    private static class LegacyQueryHelp {
+
+        static <R, Q> Predicate getPredicate(Root<R> root, Q query, CriteriaBuilder cb) {
+            List<Predicate> list = new ArrayList<>();
+            DataPermission permission = query.getClass().getAnnotation(DataPermission.class);
+            if (permission != null) {
+                List<Long> dataScopes = SecurityUtils.getCurrentUserDataScope();
+                if (CollUtil.isNotEmpty(dataScopes) && StringUtils.isNotBlank(permission.fieldName())) {
+                    list.add(root.get(permission.fieldName()).in(dataScopes));
+                }
+            }
+            try {
+                Map<String, Join> joinKey = new HashMap<>();
+                for (Field field : QueryHelp.getAllFields(query.getClass(), new ArrayList<>())) {
+                    boolean accessible = field.isAccessible();
+                    field.setAccessible(true);
+                    Query q = field.getAnnotation(Query.class);
+                    if (q != null) {
+                        String propName = q.propName();
+                        String joinName = q.joinName();
+                        String blurry = q.blurry();
+                        String attributeName = StringUtils.isBlank(propName) ? field.getName() : propName;
+                        Class<?> fieldType = field.getType();
+                        Object val = field.get(query);
+                        if (ObjectUtil.isNull(val) || "".equals(val)) {
+                            continue;
+                        }
+                        Join join = null;
+                        if (ObjectUtil.isNotEmpty(blurry)) {
+                            String[] blurrys = blurry.split(",");
+                            List<Predicate> orPredicate = new ArrayList<>();
+                            for (String s : blurrys) {
+                                orPredicate.add(cb.like(root.get(s).as(String.class), "%" + val.toString() + "%"));
+                            }
+                            list.add(cb.or(orPredicate.toArray(new Predicate[orPredicate.size()])));
+                            continue;
+                        }
+                        if (ObjectUtil.isNotEmpty(joinName)) {
+                            join = joinKey.get(joinName);
+                            if (join == null) {
+                                JoinType joinType = JoinType.valueOf(q.join().name());
+                                for (String name : joinName.split(">")) {
+                                    join = join != null ? join.join(name, joinType) : root.join(name, joinType);
+                                }
+                                joinKey.put(joinName, join);
+                            }
+                        }
+                        From from = join == null ? root : join;
+                        switch (q.type()) {
+                            case EQUAL:
+                                list.add(cb.equal(from.get(attributeName).as((Class<? extends Comparable>) fieldType), val));
+                                break;
+                            case INNER_LIKE:
+                                list.add(cb.like(from.get(attributeName).as(String.class), "%" + val.toString() + "%"));
+                                break;
+                            case IN:
+                                if (CollUtil.isNotEmpty((Collection<Object>) val)) {
+                                    list.add(from.get(attributeName).in((Collection<Object>) val));
+                                }
+                                break;
+                            case IS_NULL:
+                                list.add(cb.isNull(from.get(attributeName)));
+                                break;
+                            case BETWEEN:
+                                List<Object> between = new ArrayList<>((List<Object>) val);
+                                if (between.size() == 2) {
+                                    list.add(cb.between(from.get(attributeName).as((Class<? extends Comparable>) between.get(0).getClass()),
+                                            (Comparable) between.get(0), (Comparable) between.get(1)));
+                                }
+                                break;
+                            default:
+                                throw new UnsupportedOperationException(q.type().name());
+                        }
+                    }
+                    field.setAccessible(accessible);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+            return cb.and(list.toArray(new Predicate[list.size()]));
+        }
+    }
+}